@@ -0,0 +1,49 @@
+package com.example.buddyfinder_backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableScheduling
+public class AsyncConfig {
+
+    /**
+     * Builds discovery decks off the request threads. Small and bounded on purpose: when it is
+     * saturated, refills are dropped and retried on the user's next swipe.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor discoveryDeckExecutor(
+            @Value("${discovery.deck.threads:2}") int threads,
+            @Value("${discovery.deck.queue-capacity:500}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("discovery-deck-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Sends real-time notification pushes once the transaction that recorded them has committed.
+     * When it falls behind, pushes are sent on the committing thread instead of being dropped.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor notificationPushExecutor(
+            @Value("${notifications.push.threads:2}") int threads,
+            @Value("${notifications.push.queue-capacity:5000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("notification-push-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
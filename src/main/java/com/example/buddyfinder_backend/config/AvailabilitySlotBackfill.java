@@ -0,0 +1,47 @@
+package com.example.buddyfinder_backend.config;
+
+import com.example.buddyfinder_backend.entity.User;
+import com.example.buddyfinder_backend.repository.UserRepository;
+import com.example.buddyfinder_backend.util.AvailabilityParser;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Parses the availability text of users saved before availability slots existed. Runs at
+ * startup in batches; every processed user gets a mask (0 if nothing was recognised), so each
+ * batch drops out of the query and the job does nothing once the table is backfilled.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AvailabilitySlotBackfill implements CommandLineRunner {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final UserRepository userRepository;
+
+    @Override
+    public void run(String... args) {
+        int updated = 0;
+        Slice<User> batch;
+        do {
+            batch = userRepository.findByAvailabilitySlotsIsNullAndAvailabilityIsNotNull(PageRequest.of(0, BATCH_SIZE));
+            List<User> users = batch.getContent();
+            for (User user : users) {
+                user.setAvailabilitySlots(AvailabilityParser.parse(user.getAvailability()));
+            }
+            userRepository.saveAll(users);
+            updated += users.size();
+        } while (batch.hasNext());
+
+        if (updated > 0) {
+            log.info("Backfilled availability slots for {} users", updated);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.buddyfinder_backend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * In-process Artemis broker speaking STOMP, for running the broker relay without separate
+ * infrastructure: one node enables it and the others point websocket.broker.relay.host at it.
+ * Non-persistent, as everything on /topic is transient fan-out.
+ */
+@Configuration
+@ConditionalOnProperty(name = "websocket.broker.embedded.enabled", havingValue = "true")
+@Slf4j
+public class EmbeddedStompBrokerConfig {
+
+    @Value("${websocket.broker.embedded.host:0.0.0.0}")
+    private String host;
+
+    @Value("${websocket.broker.embedded.port:61613}")
+    private int port;
+
+    @Bean(destroyMethod = "stop")
+    public EmbeddedActiveMQ embeddedStompBroker() throws Exception {
+        ConfigurationImpl configuration = new ConfigurationImpl();
+        configuration.setPersistenceEnabled(false);
+        configuration.setSecurityEnabled(false);
+        configuration.setJMXManagementEnabled(false);
+        // STOMP destinations under /topic/ are publish-subscribe addresses
+        configuration.addAcceptorConfiguration("stomp",
+                "tcp://" + host + ":" + port + "?protocols=STOMP;multicastPrefix=/topic/");
+
+        EmbeddedActiveMQ broker = new EmbeddedActiveMQ();
+        broker.setConfiguration(configuration);
+        broker.start();
+        log.info("Embedded STOMP broker listening on {}:{}", host, port);
+        return broker;
+    }
+}
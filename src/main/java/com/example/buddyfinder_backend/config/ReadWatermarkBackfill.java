@@ -0,0 +1,51 @@
+package com.example.buddyfinder_backend.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Derives the read watermarks of matches created before watermarks existed from the per-message
+ * read flags: each participant has read up to the newest message from the other participant that
+ * was flagged read. A watermark that is already set is left alone. Matches without one are
+ * backfilled once, so on later starts the statement only touches new matches that nobody has
+ * opened yet.
+ *
+ * Group rooms had no read tracking at all, so members without a watermark start from the newest
+ * message of their room: existing history does not suddenly show up as unread.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReadWatermarkBackfill implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        int updated = jdbcTemplate.update(
+                "UPDATE matches m SET " +
+                "user1_last_read_message_id = coalesce(m.user1_last_read_message_id, (" +
+                "  SELECT max(message_id) FROM messages " +
+                "  WHERE match_id = m.match_id AND sender_id <> m.user1_id AND is_read), 0), " +
+                "user2_last_read_message_id = coalesce(m.user2_last_read_message_id, (" +
+                "  SELECT max(message_id) FROM messages " +
+                "  WHERE match_id = m.match_id AND sender_id <> m.user2_id AND is_read), 0) " +
+                "WHERE m.user1_last_read_message_id IS NULL OR m.user2_last_read_message_id IS NULL");
+
+        if (updated > 0) {
+            log.info("Backfilled read watermarks for {} matches", updated);
+        }
+
+        int members = jdbcTemplate.update(
+                "UPDATE chat_room_member m SET last_read_message_id = coalesce((" +
+                "  SELECT max(id) FROM group_message WHERE chat_room_id = m.chat_room_id), 0) " +
+                "WHERE m.last_read_message_id IS NULL");
+
+        if (members > 0) {
+            log.info("Backfilled read watermarks for {} group chat members", members);
+        }
+    }
+}
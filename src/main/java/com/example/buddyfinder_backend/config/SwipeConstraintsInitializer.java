@@ -0,0 +1,78 @@
+package com.example.buddyfinder_backend.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Brings databases created before the like/match uniqueness rules in line with them, then makes
+ * sure the unique indexes exist. Hibernate's schema update cannot add a unique constraint while
+ * duplicates exist, and the like path relies on these indexes for its ON CONFLICT clauses.
+ * Every step is a no-op on an already clean database.
+ *
+ * Before a duplicate match is deleted, every row pointing at it is moved to the match that is
+ * kept: each column with a foreign key to matches, read from the catalog so tables added later
+ * are covered too, plus MATCH notifications, whose related id has no foreign key.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SwipeConstraintsInitializer implements CommandLineRunner {
+
+    private static final String DUPLICATE_MATCHES =
+            "SELECT match_id, min(match_id) OVER (PARTITION BY least(user1_id, user2_id), greatest(user1_id, user2_id)) AS keep_id " +
+            "FROM matches";
+
+    // Single-column foreign keys to matches, as (quoted table, quoted column)
+    private static final String REFERENCING_COLUMNS =
+            "SELECT c.conrelid::regclass::text, quote_ident(a.attname) " +
+            "FROM pg_constraint c JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1] " +
+            "WHERE c.contype = 'f' AND c.confrelid = to_regclass('matches') AND cardinality(c.conkey) = 1 " +
+            "ORDER BY 1, 2";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void run(String... args) {
+        int likes = jdbcTemplate.update(
+                "DELETE FROM likes a USING likes b " +
+                "WHERE a.from_user_id = b.from_user_id AND a.to_user_id = b.to_user_id AND a.like_id > b.like_id");
+
+        // Keep the oldest match of each pair and move everything pointing at the others onto it
+        List<String[]> references = jdbcTemplate.query(REFERENCING_COLUMNS,
+                (rs, rowNum) -> new String[]{rs.getString(1), rs.getString(2)});
+        for (String[] reference : references) {
+            int moved = jdbcTemplate.update(repointStatement(reference[0], reference[1]));
+            if (moved > 0) {
+                log.info("Swipe constraints: moved {} rows of {}.{} to the kept match", moved, reference[0], reference[1]);
+            }
+        }
+        jdbcTemplate.update(
+                "UPDATE notifications n SET related_id = d.keep_id FROM (" + DUPLICATE_MATCHES + ") d " +
+                "WHERE n.related_type = 'MATCH' AND n.related_id = d.match_id AND d.match_id <> d.keep_id");
+        int matches = jdbcTemplate.update(
+                "DELETE FROM matches m USING (" + DUPLICATE_MATCHES + ") d " +
+                "WHERE m.match_id = d.match_id AND d.match_id <> d.keep_id");
+        int reordered = jdbcTemplate.update(
+                "UPDATE matches SET user1_id = user2_id, user2_id = user1_id WHERE user1_id > user2_id");
+
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uk_likes_from_to ON likes (from_user_id, to_user_id)");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uk_matches_pair ON matches (user1_id, user2_id)");
+
+        if (likes + matches + reordered > 0) {
+            log.info("Swipe constraints: removed {} duplicate likes and {} duplicate matches, reordered {} matches",
+                    likes, matches, reordered);
+        }
+    }
+
+    static String repointStatement(String table, String column) {
+        return "UPDATE " + table + " t SET " + column + " = d.keep_id FROM (" + DUPLICATE_MATCHES + ") d " +
+                "WHERE t." + column + " = d.match_id AND d.match_id <> d.keep_id";
+    }
+}
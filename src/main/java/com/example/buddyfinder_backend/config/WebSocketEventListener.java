@@ -1,27 +1,42 @@
 package com.example.buddyfinder_backend.config;
 
+import com.example.buddyfinder_backend.security.StompUserResolver;
+import com.example.buddyfinder_backend.service.PresenceService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.stereotype.Component;
-import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
+/**
+ * Feeds {@link PresenceService} from STOMP session lifecycle events. Sessions without a valid
+ * token are tracked as anonymous.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class WebSocketEventListener {
 
-    private final SimpMessagingTemplate messagingTemplate;
+    private final StompUserResolver stompUserResolver;
+    private final PresenceService presenceService;
 
     @EventListener
-    public void handleWebSocketConnectListener(SessionConnectedEvent event) {
-        log.info("New WebSocket connection");
+    public void handleWebSocketConnectListener(SessionConnectEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        if (accessor.getSessionId() == null) {
+            return;
+        }
+        Long userId = stompUserResolver.resolve(accessor);
+        long[] heartbeat = accessor.getHeartbeat();
+        presenceService.connected(accessor.getSessionId(), userId, heartbeat[0]);
+        log.debug("WebSocket connection {} for user {}", accessor.getSessionId(), userId);
     }
 
     @EventListener
     public void handleWebSocketDisconnectListener(SessionDisconnectEvent event) {
-        log.info("WebSocket connection closed");
+        presenceService.disconnected(event.getSessionId());
+        log.debug("WebSocket connection {} closed", event.getSessionId());
     }
-}
\ No newline at end of file
+}
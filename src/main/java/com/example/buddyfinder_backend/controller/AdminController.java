@@ -6,6 +6,9 @@ import com.example.buddyfinder_backend.entity.Report;
 import com.example.buddyfinder_backend.entity.User;
 import com.example.buddyfinder_backend.security.JwtUtil;
 import com.example.buddyfinder_backend.service.AdminService;
+import com.example.buddyfinder_backend.service.ChatMessagePipeline;
+import com.example.buddyfinder_backend.service.PassIngestionPipeline;
+import com.example.buddyfinder_backend.service.PresenceService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -21,6 +24,9 @@ public class AdminController {
 
     private final AdminService adminService;
     private final JwtUtil jwtUtil;
+    private final PassIngestionPipeline passIngestionPipeline;
+    private final ChatMessagePipeline chatMessagePipeline;
+    private final PresenceService presenceService;
 
     @GetMapping("/dashboard")
     public ResponseEntity<Map<String, Object>> getDashboardStats(
@@ -30,6 +36,27 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getDashboardStats());
     }
 
+    @GetMapping("/metrics/pass-ingestion")
+    public ResponseEntity<Map<String, Object>> getPassIngestionMetrics(
+            @RequestHeader("Authorization") String authHeader) {
+
+        return ResponseEntity.ok(passIngestionPipeline.metrics());
+    }
+
+    @GetMapping("/metrics/chat-pipeline")
+    public ResponseEntity<Map<String, Object>> getChatPipelineMetrics(
+            @RequestHeader("Authorization") String authHeader) {
+
+        return ResponseEntity.ok(chatMessagePipeline.metrics());
+    }
+
+    @GetMapping("/metrics/presence")
+    public ResponseEntity<Map<String, Object>> getPresenceMetrics(
+            @RequestHeader("Authorization") String authHeader) {
+
+        return ResponseEntity.ok(presenceService.metrics());
+    }
+
     @GetMapping("/users")
     public ResponseEntity<List<User>> getAllUsers(
             @RequestHeader("Authorization") String authHeader) {
@@ -2,6 +2,8 @@
 package com.example.buddyfinder_backend.controller;
 
 import com.example.buddyfinder_backend.dto.ChatMessage;
+import com.example.buddyfinder_backend.dto.ChatMessagePage;
+import com.example.buddyfinder_backend.dto.InboxEntry;
 import com.example.buddyfinder_backend.security.JwtUtil;
 import com.example.buddyfinder_backend.service.MessageService;
 import lombok.RequiredArgsConstructor;
@@ -20,6 +22,14 @@ public class ChatController {
     private final MessageService messageService;
     private final JwtUtil jwtUtil;
 
+    @GetMapping("/inbox")
+    public ResponseEntity<List<InboxEntry>> getInbox(
+            @RequestHeader("Authorization") String authHeader) {
+
+        Long userId = extractUserIdFromToken(authHeader);
+        return ResponseEntity.ok(messageService.getInbox(userId));
+    }
+
     @GetMapping("/messages/{matchId}")
     public ResponseEntity<List<ChatMessage>> getMessages(
             @RequestHeader("Authorization") String authHeader,
@@ -29,6 +39,18 @@ public class ChatController {
         return ResponseEntity.ok(messageService.getMessagesByMatch(matchId, userId));
     }
 
+    @GetMapping("/messages/{matchId}/page")
+    public ResponseEntity<ChatMessagePage> getMessagePage(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable Long matchId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer size) {
+
+        Long userId = extractUserIdFromToken(authHeader);
+        return ResponseEntity.ok(messageService.getMessagePage(matchId, userId, before, after, size));
+    }
+
     @PostMapping("/send")
     public ResponseEntity<ChatMessage> sendMessage(
             @RequestHeader("Authorization") String authHeader,
@@ -43,6 +65,18 @@ public class ChatController {
         return ResponseEntity.ok(message);
     }
 
+    @PostMapping("/messages/{matchId}/read")
+    public ResponseEntity<Void> markRead(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable Long matchId,
+            @RequestBody Map<String, Object> request) {
+
+        Long userId = extractUserIdFromToken(authHeader);
+        Long messageId = Long.valueOf(request.get("lastReadMessageId").toString());
+        messageService.markRead(matchId, userId, messageId);
+        return ResponseEntity.ok().build();
+    }
+
     @GetMapping("/unread/{matchId}")
     public ResponseEntity<Map<String, Integer>> getUnreadCount(
             @RequestHeader("Authorization") String authHeader,
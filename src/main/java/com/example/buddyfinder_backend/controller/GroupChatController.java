@@ -2,7 +2,9 @@ package com.example.buddyfinder_backend.controller;
 
 import com.example.buddyfinder_backend.dto.ChatRoomInfoDto;
 import com.example.buddyfinder_backend.dto.ChatRoomMemberDto;
+import com.example.buddyfinder_backend.dto.GroupChatMessagePage;
 import com.example.buddyfinder_backend.dto.GroupChatMessageResponse;
+import com.example.buddyfinder_backend.dto.RoomUnreadCount;
 import com.example.buddyfinder_backend.service.GroupChatService;
 import com.example.buddyfinder_backend.security.JwtUtil;
 import lombok.RequiredArgsConstructor;
@@ -12,6 +14,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/group-chat")
@@ -44,6 +47,38 @@ public class GroupChatController {
         return ResponseEntity.ok(groupChatService.getMessages(roomId));
     }
 
+    @GetMapping("/rooms/{roomId}/messages/page")
+    public ResponseEntity<GroupChatMessagePage> getMessagePage(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable Long roomId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer size
+    ) {
+        Long userId = getUserIdFromAuth(authHeader);
+        return ResponseEntity.ok(groupChatService.getMessagePage(roomId, userId, before, after, size));
+    }
+
+    @PostMapping("/rooms/{roomId}/read")
+    public ResponseEntity<Void> markRead(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable Long roomId,
+            @RequestBody Map<String, Object> request
+    ) {
+        Long userId = getUserIdFromAuth(authHeader);
+        Long messageId = Long.valueOf(request.get("lastReadMessageId").toString());
+        groupChatService.markRead(roomId, userId, messageId);
+        return ResponseEntity.ok().build();
+    }
+
+    @GetMapping("/rooms/unread")
+    public ResponseEntity<List<RoomUnreadCount>> getUnreadCounts(
+            @RequestHeader("Authorization") String authHeader
+    ) {
+        Long userId = getUserIdFromAuth(authHeader);
+        return ResponseEntity.ok(groupChatService.getUnreadCounts(userId));
+    }
+
     @GetMapping("/rooms/{roomId}/members")
     public ResponseEntity<List<ChatRoomMemberDto>> getMembers(
             @PathVariable Long roomId
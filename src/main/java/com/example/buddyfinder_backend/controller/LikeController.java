@@ -1,5 +1,6 @@
 package com.example.buddyfinder_backend.controller;
 
+import com.example.buddyfinder_backend.dto.ReceivedLikesPage;
 import com.example.buddyfinder_backend.dto.UserResponse;
 import com.example.buddyfinder_backend.security.JwtUtil;
 import com.example.buddyfinder_backend.service.LikeService;
@@ -26,6 +27,16 @@ public class LikeController {
         return ResponseEntity.ok(likeService.getUsersWhoLiked(userId));
     }
 
+    @GetMapping("/received/page")
+    public ResponseEntity<ReceivedLikesPage> getReceivedLikesPage(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size) {
+
+        Long userId = extractUserIdFromToken(authHeader);
+        return ResponseEntity.ok(likeService.getUsersWhoLiked(userId, cursor, size));
+    }
+
     private Long extractUserIdFromToken(String authHeader) {
         String token = authHeader.substring(7);
         return jwtUtil.extractUserId(token);
@@ -0,0 +1,35 @@
+package com.example.buddyfinder_backend.controller;
+
+import com.example.buddyfinder_backend.dto.PresenceLookupRequest;
+import com.example.buddyfinder_backend.dto.PresenceStatus;
+import com.example.buddyfinder_backend.security.JwtUtil;
+import com.example.buddyfinder_backend.service.PresenceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/presence")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class PresenceController {
+
+    private final PresenceService presenceService;
+    private final JwtUtil jwtUtil;
+
+    /**
+     * Online / last-seen badges for a list of users in one call
+     * POST /api/presence/lookup {"userIds": [1, 2, 3]}
+     */
+    @PostMapping("/lookup")
+    public ResponseEntity<List<PresenceStatus>> lookup(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestBody PresenceLookupRequest request
+    ) {
+        Long userId = jwtUtil.extractUserId(authHeader.substring(7));
+        List<Long> userIds = request.getUserIds() != null ? request.getUserIds() : List.of();
+        return ResponseEntity.ok(presenceService.lookup(userId, userIds));
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.buddyfinder_backend.controller;
 
 import com.example.buddyfinder_backend.dto.SearchFilters;
+import com.example.buddyfinder_backend.dto.SearchPage;
 import com.example.buddyfinder_backend.dto.UserResponse;
 import com.example.buddyfinder_backend.security.JwtUtil;
 import com.example.buddyfinder_backend.service.SearchService;
@@ -59,6 +60,28 @@ public class SearchController {
         return ResponseEntity.ok(searchService.getPotentialMatches(userId, filters));
     }
 
+    @GetMapping("/buddies/page")
+    public ResponseEntity<SearchPage> searchBuddiesPage(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) String interests,
+            @RequestParam(required = false) String activity,
+            @RequestParam(required = false) String time,
+            @RequestParam(required = false) String mbtiType,
+            @RequestParam(required = false) String zodiacSign,
+            @RequestParam(required = false) String fitnessLevel,
+            @RequestParam(required = false) String gender,
+            @RequestParam(required = false) Double latitude,
+            @RequestParam(required = false) Double longitude,
+            @RequestParam(required = false) Double radiusKm) {
+
+        Long userId = extractUserIdFromToken(authHeader);
+        SearchFilters filters = buildFilters(location, interests, activity, time, mbtiType, zodiacSign, fitnessLevel, gender, latitude, longitude, radiusKm);
+        return ResponseEntity.ok(searchService.searchPage(userId, filters, cursor, size));
+    }
+
     private Long extractUserIdFromToken(String authHeader) {
         String token = authHeader.substring(7);
         return jwtUtil.extractUserId(token);
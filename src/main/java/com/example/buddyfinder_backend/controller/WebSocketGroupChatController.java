@@ -43,6 +43,9 @@ public class WebSocketGroupChatController {
                     request.getSenderId(),
                     Boolean.TRUE.equals(request.getTyping())
             );
+            if (event == null) {
+                return; // throttled
+            }
             messagingTemplate.convertAndSend("/topic/group/" + roomId + "/typing", event);
         } catch (Exception e) {
             log.error("Failed to handle group typing event for room {}", roomId, e);
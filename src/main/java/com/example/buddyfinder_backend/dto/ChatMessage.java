@@ -13,6 +13,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class ChatMessage {
     private Long messageId;
+    // Set from acceptance on; messageId only once the message is stored
+    private String clientMessageId;
     private Long matchId;
     private Long senderId;
     private String senderName;
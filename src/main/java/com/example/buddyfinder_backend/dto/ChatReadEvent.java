@@ -0,0 +1,17 @@
+package com.example.buddyfinder_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatReadEvent {
+    private Long matchId;
+    private Long readerId;
+    private Long lastReadMessageId;
+    private Long timestamp;
+}
@@ -0,0 +1,19 @@
+package com.example.buddyfinder_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupChatMessagePage {
+    // Newest first
+    private List<GroupChatMessageResponse> items;
+    // More messages exist beyond this page, in the direction that was asked for
+    private Boolean hasMore;
+}
@@ -0,0 +1,26 @@
+package com.example.buddyfinder_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InboxEntry {
+    private Long matchId;
+    private LocalDateTime matchedAt;
+    private Long peerId;
+    private String peerName;
+    private String peerProfilePictureUrl;
+    private Long lastMessageId;
+    private Long lastMessageSenderId;
+    private String lastMessagePreview;
+    private String lastMessageMediaType;
+    private LocalDateTime lastMessageAt;
+    private Integer unreadCount;
+}
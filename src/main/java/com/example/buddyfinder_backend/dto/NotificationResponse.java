@@ -18,5 +18,7 @@ public class NotificationResponse {
     private String relatedType;
     private Boolean isRead;
     private LocalDateTime createdAt;
+    private Integer collapseCount;
+    private LocalDateTime updatedAt;
 }
 
@@ -0,0 +1,16 @@
+package com.example.buddyfinder_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenceLookupRequest {
+    private List<Long> userIds;
+}
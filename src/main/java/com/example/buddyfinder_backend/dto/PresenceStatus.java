@@ -0,0 +1,19 @@
+package com.example.buddyfinder_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenceStatus {
+    private Long userId;
+    private Boolean online;
+    // Now while online; null when unknown or hidden (incognito)
+    private LocalDateTime lastSeen;
+}
@@ -0,0 +1,19 @@
+package com.example.buddyfinder_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReceivedLikesPage {
+    private List<UserResponse> items;
+    private Long totalCount;
+    private Long nextCursor;
+    private Boolean hasMore;
+}
@@ -33,4 +33,5 @@ public class UserResponse {
     private Boolean incognitoMode;
     private Double averageRating;
     private Long totalRatings;
+    private Double distanceKm;
 }
@@ -6,6 +6,8 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(name = "chat_room_member",
+        indexes = @Index(name = "idx_chat_room_member_user", columnList = "user_id"))
 @Getter
 @Setter
 @Builder
@@ -34,4 +36,7 @@ public class ChatRoomMember {
     private Role role;
 
     private LocalDateTime joinedAt;
+
+    // Highest group message id this member has read
+    private Long lastReadMessageId;
 }
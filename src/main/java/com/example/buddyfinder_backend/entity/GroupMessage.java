@@ -6,6 +6,8 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(name = "group_message",
+        indexes = @Index(name = "idx_group_message_room_id", columnList = "chat_room_id, id"))
 @Getter
 @Setter
 @Builder
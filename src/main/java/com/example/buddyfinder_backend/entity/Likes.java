@@ -7,7 +7,10 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "likes")
+@Table(name = "likes",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_likes_from_to", columnNames = {"from_user_id", "to_user_id"}),
+        indexes = @Index(name = "idx_likes_to_user_like", columnList = "to_user_id, like_id"))
 @Getter
 @Setter
 @NoArgsConstructor
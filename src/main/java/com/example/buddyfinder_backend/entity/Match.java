@@ -9,7 +9,11 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "matches")
+@Table(name = "matches",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_matches_pair", columnNames = {"user1_id", "user2_id"}),
+        // uk_matches_pair already leads with user1_id
+        indexes = @Index(name = "idx_matches_user2", columnList = "user2_id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -44,6 +48,21 @@ public class Match {
 
     private Integer unreadCountUser;
 
+    // Highest message id each participant has read; null until they first open the chat
+    private Long user1LastReadMessageId;
+
+    private Long user2LastReadMessageId;
+
+    // A pair is stored once, lower user id first, so the unique constraint covers both directions
+    @PrePersist
+    void orderUsers() {
+        if (user1 != null && user2 != null && user1.getUserId() > user2.getUserId()) {
+            User first = user2;
+            user2 = user1;
+            user1 = first;
+        }
+    }
+
     public enum MatchStatus {
         ACTIVE, INACTIVE, BLOCKED
     }
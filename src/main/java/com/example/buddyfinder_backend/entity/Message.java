@@ -8,7 +8,10 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages",
+        indexes = @Index(name = "idx_messages_match_message", columnList = "match_id, message_id"),
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_messages_client_message_id", columnNames = "client_message_id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -20,6 +23,10 @@ public class Message {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long messageId;
 
+    // Given when the message is accepted, before it has an id; makes journal replay idempotent
+    @Column(name = "client_message_id", length = 36, updatable = false)
+    private String clientMessageId;
+
     @ManyToOne
     @JoinColumn(name = "match_id", nullable = false)
     @JsonIgnoreProperties({"user1", "user2"})
@@ -8,7 +8,8 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications",
+        indexes = @Index(name = "idx_notifications_collapse", columnList = "user_id, related_type, related_id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -49,6 +50,12 @@ public class Notification {
     @Column(updatable = false)
     private LocalDateTime createdAt;
 
+    // How many events this unread notification stands for (message notifications are collapsed)
+    private Integer collapseCount;
+
+    // Time of the latest collapsed event
+    private LocalDateTime updatedAt;
+
     public enum NotificationType {
         MATCH("You have a new match!"),
         MESSAGE("New message received"),
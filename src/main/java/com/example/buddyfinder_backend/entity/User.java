@@ -48,6 +48,9 @@ public class User {
     @Column(length = 120)
     private String availability;
 
+    // Weekly slot bitmask parsed from availability, see AvailabilityParser
+    private Long availabilitySlots;
+
     @Column(columnDefinition = "TEXT")
     private String bio;
 
@@ -0,0 +1,30 @@
+package com.example.buddyfinder_backend.event;
+
+import com.example.buddyfinder_backend.entity.User;
+import lombok.Getter;
+
+/**
+ * Published whenever a user's searchable state changes (registration, profile update, ban, deletion).
+ * In-memory read models listen for it to stay in sync with the users table.
+ */
+@Getter
+public class UserChangedEvent {
+
+    private final Long userId;
+    private final User user;
+    private final boolean deleted;
+
+    private UserChangedEvent(Long userId, User user, boolean deleted) {
+        this.userId = userId;
+        this.user = user;
+        this.deleted = deleted;
+    }
+
+    public static UserChangedEvent updated(User user) {
+        return new UserChangedEvent(user.getUserId(), user, false);
+    }
+
+    public static UserChangedEvent deleted(Long userId) {
+        return new UserChangedEvent(userId, null, true);
+    }
+}
@@ -2,6 +2,8 @@ package com.example.buddyfinder_backend.repository;
 
 import com.example.buddyfinder_backend.entity.ChatRoomMember;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 import java.util.Optional;
@@ -19,4 +21,26 @@ public interface ChatRoomMemberRepository extends JpaRepository<ChatRoomMember,
     void deleteByChatRoom_Id(Long roomId);
 
     List<ChatRoomMember> findByUser_UserId(Long userId);
+
+    // Only ever moves the watermark forward
+    @Modifying
+    @Query(value = "UPDATE chat_room_member SET last_read_message_id = :messageId " +
+            "WHERE chat_room_id = :roomId AND user_id = :userId " +
+            "AND coalesce(last_read_message_id, 0) < :messageId",
+            nativeQuery = true)
+    int advanceReadWatermark(Long roomId, Long userId, Long messageId);
+
+    // Unread messages from other members in each of the user's rooms: one range count per room
+    @Query(value = "SELECT m.chat_room_id AS roomId, CAST((" +
+            "  SELECT count(*) FROM group_message g " +
+            "  WHERE g.chat_room_id = m.chat_room_id AND g.id > coalesce(m.last_read_message_id, 0) " +
+            "    AND g.system_message = false AND g.sender_id <> :userId) AS integer) AS unreadCount " +
+            "FROM chat_room_member m WHERE m.user_id = :userId",
+            nativeQuery = true)
+    List<RoomUnread> countUnreadByRoom(Long userId);
+
+    interface RoomUnread {
+        Long getRoomId();
+        Integer getUnreadCount();
+    }
 }
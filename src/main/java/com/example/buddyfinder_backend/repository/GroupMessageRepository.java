@@ -1,7 +1,9 @@
 package com.example.buddyfinder_backend.repository;
 
 import com.example.buddyfinder_backend.entity.GroupMessage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
@@ -9,5 +11,16 @@ public interface GroupMessageRepository extends JpaRepository<GroupMessage, Long
 
     List<GroupMessage> findByChatRoom_IdOrderByTimestampAsc(Long roomId);
 
+    // Keyset pages over idx_group_message_room_id
+    @Query("SELECT g FROM GroupMessage g LEFT JOIN FETCH g.sender " +
+            "WHERE g.chatRoom.id = :roomId AND g.id < :before ORDER BY g.id DESC")
+    List<GroupMessage> findPageBefore(Long roomId, long before, Pageable pageable);
+
+    @Query("SELECT g FROM GroupMessage g LEFT JOIN FETCH g.sender " +
+            "WHERE g.chatRoom.id = :roomId AND g.id > :after ORDER BY g.id ASC")
+    List<GroupMessage> findPageAfter(Long roomId, long after, Pageable pageable);
+
+    boolean existsByIdAndChatRoom_Id(Long id, Long roomId);
+
     void deleteByChatRoom_Id(Long roomId);
 }
@@ -2,6 +2,7 @@ package com.example.buddyfinder_backend.repository;
 
 import com.example.buddyfinder_backend.entity.Likes;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,6 +15,76 @@ public interface LikesRepository extends JpaRepository<Likes, Long> {
 
     List<Likes> findByToUser_UserId(Long toUserId);
 
+    @Query("SELECT l.toUser.userId FROM Likes l WHERE l.fromUser.userId = :fromUserId")
+    List<Long> findTargetUserIdsByFromUserId(Long fromUserId);
+
+    /**
+     * One page of the positive likes a user received from people they have not matched with,
+     * newest first, starting below like id {@code before}. Served by idx_likes_to_user_like.
+     */
+    @Query(value = "SELECT l.like_id AS likeId, l.from_user_id AS fromUserId FROM likes l " +
+            "WHERE l.to_user_id = :userId AND l.type IN ('LIKE', 'SUPER_LIKE') AND l.like_id < :before " +
+            "AND NOT EXISTS (SELECT 1 FROM matches m " +
+            "  WHERE m.user1_id = least(l.from_user_id, :userId) AND m.user2_id = greatest(l.from_user_id, :userId)) " +
+            "ORDER BY l.like_id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<ReceivedLike> findReceivedLikes(Long userId, long before, int limit);
+
+    @Query(value = "SELECT count(*) FROM likes l " +
+            "WHERE l.to_user_id = :userId AND l.type IN ('LIKE', 'SUPER_LIKE') " +
+            "AND NOT EXISTS (SELECT 1 FROM matches m " +
+            "  WHERE m.user1_id = least(l.from_user_id, :userId) AND m.user2_id = greatest(l.from_user_id, :userId))",
+            nativeQuery = true)
+    long countReceivedLikes(Long userId);
+
+    /**
+     * Serializes concurrent swipes between the same two users until the transaction ends.
+     */
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(:pairKey)) AS pair_lock", nativeQuery = true)
+    Integer lockSwipePair(long pairKey);
+
+    /**
+     * Records a like and, if the other user already liked back, creates the match, in one
+     * statement. The reverse like is checked on the unique (from, to) index unless {@code mutual}
+     * already says it exists, so a caller that knows it can skip the lookup but never cause a
+     * missed match. The like is skipped if this pair already has a swipe (unique from/to key); the
+     * match uses the canonical (lower id, higher id) pair and is skipped if it already exists.
+     */
+    @Query(value = "WITH target AS (SELECT user_id, name FROM users WHERE user_id = :toUserId), " +
+            "inserted AS (" +
+            "  INSERT INTO likes (from_user_id, to_user_id, type, created_at) " +
+            "  SELECT :fromUserId, user_id, :type, now() FROM target " +
+            "  ON CONFLICT (from_user_id, to_user_id) DO NOTHING " +
+            "  RETURNING like_id), " +
+            "new_match AS (" +
+            "  INSERT INTO matches (user1_id, user2_id, status, compatibility_score, matched_at, last_message_at) " +
+            "  SELECT :user1Id, :user2Id, 'ACTIVE', :compatibilityScore, now(), now() " +
+            "  WHERE (:mutual OR EXISTS (SELECT 1 FROM likes r " +
+            "    WHERE r.from_user_id = :toUserId AND r.to_user_id = :fromUserId " +
+            "      AND r.type IN ('LIKE', 'SUPER_LIKE'))) " +
+            "    AND EXISTS (SELECT 1 FROM inserted) " +
+            "  ON CONFLICT (user1_id, user2_id) DO NOTHING " +
+            "  RETURNING match_id) " +
+            "SELECT (SELECT name FROM users WHERE user_id = :fromUserId) AS fromUserName, " +
+            "(SELECT name FROM target) AS toUserName, " +
+            "EXISTS (SELECT 1 FROM inserted) AS inserted, " +
+            "(SELECT match_id FROM new_match) AS matchId",
+            nativeQuery = true)
+    LikeOutcome recordLike(Long fromUserId, Long toUserId, String type, boolean mutual,
+                           Long user1Id, Long user2Id, Float compatibilityScore);
+
     // === 🆕 DELETE METHOD FOR GDPR COMPLIANCE ===
     void deleteByFromUser_UserIdOrToUser_UserId(Long fromUserId, Long toUserId);
+
+    interface ReceivedLike {
+        Long getLikeId();
+        Long getFromUserId();
+    }
+
+    interface LikeOutcome {
+        String getFromUserName();
+        String getToUserName();
+        Boolean getInserted();
+        Long getMatchId();
+    }
 }
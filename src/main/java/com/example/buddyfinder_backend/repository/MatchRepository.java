@@ -3,6 +3,7 @@ package com.example.buddyfinder_backend.repository;
 import com.example.buddyfinder_backend.entity.Match;
 import com.example.buddyfinder_backend.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -18,6 +19,20 @@ public interface MatchRepository extends JpaRepository<Match, Long> {
     @Query("SELECT m FROM Match m WHERE ((m.user1.userId = :user1Id AND m.user2.userId = :user2Id) OR (m.user1.userId = :user2Id AND m.user2.userId = :user1Id))")
     Optional<Match> findMatchBetweenUsers(Long user1Id, Long user2Id);
 
+    /**
+     * Moves a participant's read watermark forward to {@code messageId}. Returns 0 if the user is
+     * not in the match or has already read that far, so the watermark never moves back.
+     */
+    @Modifying
+    @Query(value = "UPDATE matches SET " +
+            "user1_last_read_message_id = CASE WHEN user1_id = :userId THEN :messageId ELSE user1_last_read_message_id END, " +
+            "user2_last_read_message_id = CASE WHEN user2_id = :userId THEN :messageId ELSE user2_last_read_message_id END " +
+            "WHERE match_id = :matchId AND (" +
+            "(user1_id = :userId AND coalesce(user1_last_read_message_id, 0) < :messageId) OR " +
+            "(user2_id = :userId AND coalesce(user2_last_read_message_id, 0) < :messageId))",
+            nativeQuery = true)
+    int advanceReadWatermark(Long matchId, Long userId, Long messageId);
+
     // === 🆕 DELETE METHOD FOR GDPR COMPLIANCE ===
     void deleteByUser1_UserIdOrUser2_UserId(Long user1Id, Long user2Id);
 }
\ No newline at end of file
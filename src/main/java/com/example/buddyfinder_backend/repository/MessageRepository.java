@@ -1,7 +1,9 @@
 package com.example.buddyfinder_backend.repository;
 
 import com.example.buddyfinder_backend.entity.Message;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,9 +11,26 @@ import java.util.List;
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
 
-    List<Message> findByMatch_MatchIdOrderByTimestampAsc(Long matchId);
+    List<Message> findByMatch_MatchIdOrderByMessageIdAsc(Long matchId);
 
-    Integer countByMatch_MatchIdAndIsReadFalseAndSender_UserIdNot(Long matchId, Long userId);
+    // Keyset pages over idx_messages_match_message
+    @Query("SELECT m FROM Message m JOIN FETCH m.match JOIN FETCH m.sender " +
+            "WHERE m.match.matchId = :matchId AND m.messageId < :before ORDER BY m.messageId DESC")
+    List<Message> findPageBefore(Long matchId, long before, Pageable pageable);
+
+    @Query("SELECT m FROM Message m JOIN FETCH m.match JOIN FETCH m.sender " +
+            "WHERE m.match.matchId = :matchId AND m.messageId > :after ORDER BY m.messageId ASC")
+    List<Message> findPageAfter(Long matchId, long after, Pageable pageable);
+
+    boolean existsByMessageIdAndMatch_MatchId(Long messageId, Long matchId);
+
+    // Messages from the other participant above the reader's watermark: a range count on the index
+    @Query(value = "SELECT CAST(count(*) AS integer) FROM messages msg JOIN matches m ON m.match_id = msg.match_id " +
+            "WHERE msg.match_id = :matchId AND msg.sender_id <> :userId AND msg.message_id > coalesce(" +
+            "  CASE WHEN m.user1_id = :userId THEN m.user1_last_read_message_id " +
+            "  ELSE m.user2_last_read_message_id END, 0)",
+            nativeQuery = true)
+    Integer countUnread(Long matchId, Long userId);
 
     // === 🆕 DELETE METHOD FOR GDPR COMPLIANCE ===
     void deleteBySender_UserId(Long senderId);
@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
@@ -34,6 +35,10 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     // Lấy notifications theo type
     List<Notification> findByUser_UserIdAndTypeOrderByCreatedAtDesc(Long userId, Notification.NotificationType type);
 
+    // Unread notification a new event of the same kind collapses into
+    Optional<Notification> findFirstByUser_UserIdAndTypeAndRelatedTypeAndRelatedIdAndIsReadFalseOrderByNotiIdDesc(
+            Long userId, Notification.NotificationType type, String relatedType, Long relatedId);
+
     // === 🆕 DELETE METHOD FOR GDPR COMPLIANCE ===
     void deleteByUser_UserId(Long userId);
 }
\ No newline at end of file
@@ -3,8 +3,11 @@ package com.example.buddyfinder_backend.repository;
 import com.example.buddyfinder_backend.entity.Profile;
 import com.example.buddyfinder_backend.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,6 +15,14 @@ public interface ProfileRepository extends JpaRepository<Profile, Long> {
     Optional<Profile> findByUser(User user);
     Optional<Profile> findByUser_UserId(Long userId);
 
+    @Query("SELECT p.user.userId AS userId, p.photos AS photos FROM Profile p WHERE p.user.userId IN :userIds")
+    List<ProfilePhotos> findPhotosByUserIds(Collection<Long> userIds);
+
     // === 🆕 DELETE METHOD FOR GDPR COMPLIANCE ===
     void deleteByUser_UserId(Long userId);
+
+    interface ProfilePhotos {
+        Long getUserId();
+        String getPhotos();
+    }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,7 +21,21 @@ public interface RatingRepository extends JpaRepository<Rating, Long> {
 
     long countByToUser_UserId(Long toUserId);
 
+    @Query("SELECT r.toUser.userId AS userId, AVG(r.rating) AS average, COUNT(r) AS total " +
+            "FROM Rating r GROUP BY r.toUser.userId")
+    List<RatingSummary> summarizeAll();
+
+    @Query("SELECT r.toUser.userId AS userId, AVG(r.rating) AS average, COUNT(r) AS total " +
+            "FROM Rating r WHERE r.toUser.userId IN :userIds GROUP BY r.toUser.userId")
+    List<RatingSummary> summarizeFor(Collection<Long> userIds);
+
     // === 🆕 DELETE METHODS FOR GDPR COMPLIANCE ===
     void deleteByFromUser_UserId(Long fromUserId);
     void deleteByToUser_UserId(Long toUserId);
+
+    interface RatingSummary {
+        Long getUserId();
+        Double getAverage();
+        Long getTotal();
+    }
 }
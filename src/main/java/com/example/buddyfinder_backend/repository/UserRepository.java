@@ -1,6 +1,8 @@
 package com.example.buddyfinder_backend.repository;
 
 import com.example.buddyfinder_backend.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -14,4 +16,5 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findByIsAdminTrue();
     long countByIsSuperAdminTrue();
     boolean existsByIsSuperAdminTrueAndUserIdNot(Long userId);
+    Slice<User> findByAvailabilitySlotsIsNullAndAvailabilityIsNotNull(Pageable pageable);
 }
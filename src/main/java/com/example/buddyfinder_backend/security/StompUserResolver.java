@@ -0,0 +1,32 @@
+package com.example.buddyfinder_backend.security;
+
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the user behind a STOMP session from the {@code Authorization: Bearer <jwt>} header
+ * of its CONNECT frame.
+ */
+@Component
+@RequiredArgsConstructor
+public class StompUserResolver {
+
+    private final JwtUtil jwtUtil;
+
+    /**
+     * User id from the CONNECT frame, or null if it carries no valid token.
+     */
+    public Long resolve(StompHeaderAccessor connect) {
+        String authHeader = connect.getFirstNativeHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return null;
+        }
+        try {
+            return jwtUtil.extractUserId(authHeader.substring(7));
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -21,6 +21,7 @@ public class ActivityService {
     private final ChatRoomRepository chatRoomRepository;
     private final ChatRoomMemberRepository chatRoomMemberRepository;
     private final GroupMessageRepository groupMessageRepository;
+    private final RoomMembershipCache roomMembershipCache;
     private final GroupChatService groupChatService;  // <-- New service
 
     /**
@@ -174,6 +175,7 @@ public class ActivityService {
             groupMessageRepository.deleteByChatRoom_Id(room.getId());
             chatRoomMemberRepository.deleteByChatRoom_Id(room.getId());
             chatRoomRepository.delete(room);
+            roomMembershipCache.roomDeleted(room.getId());
         });
 
         activityRepository.delete(activity);
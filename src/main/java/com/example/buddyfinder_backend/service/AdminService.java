@@ -1,8 +1,10 @@
 package com.example.buddyfinder_backend.service;
 
 import com.example.buddyfinder_backend.entity.*;
+import com.example.buddyfinder_backend.event.UserChangedEvent;
 import com.example.buddyfinder_backend.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -31,7 +33,9 @@ public class AdminService {
     private final ChatRoomRepository chatRoomRepository;
     private final ChatRoomMemberRepository chatRoomMemberRepository;
     private final GroupMessageRepository groupMessageRepository;
+    private final RoomMembershipCache roomMembershipCache;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Map<String, Object> getDashboardStats() {
         long totalUsers = userRepository.count();
@@ -71,6 +75,7 @@ public class AdminService {
             user.setBanUntil(null);
         }
         User saved = userRepository.save(user);
+        eventPublisher.publishEvent(UserChangedEvent.updated(saved));
 
         if (days > 0) {
             notificationService.createNotification(
@@ -106,7 +111,9 @@ public class AdminService {
 
         user.setIsActive(true);
         user.setBanUntil(null);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(UserChangedEvent.updated(saved));
+        return saved;
     }
 
     @Transactional
@@ -138,6 +145,7 @@ public class AdminService {
             groupMessageRepository.deleteByChatRoom_Id(room.getId());
             chatRoomMemberRepository.deleteByChatRoom_Id(room.getId());
             chatRoomRepository.delete(room);
+            roomMembershipCache.roomDeleted(room.getId());
         });
     }
 
@@ -262,7 +270,9 @@ public class AdminService {
                 .tier(User.TierType.ELITE)
                 .build();
 
-        return userRepository.save(admin);
+        User saved = userRepository.save(admin);
+        eventPublisher.publishEvent(UserChangedEvent.updated(saved));
+        return saved;
     }
 
     public User updateAdminRole(Long requesterId, Long adminUserId, String role) {
@@ -295,7 +305,9 @@ public class AdminService {
             }
         }
 
-        return userRepository.save(target);
+        User saved = userRepository.save(target);
+        eventPublisher.publishEvent(UserChangedEvent.updated(saved));
+        return saved;
     }
 
     @Transactional
@@ -398,6 +410,7 @@ public class AdminService {
         user.setIsActive(false);
         user.setBanUntil(banExpires);
         userRepository.save(user);
+        eventPublisher.publishEvent(UserChangedEvent.updated(user));
 
         notificationService.createNotification(
                 user.getUserId(),
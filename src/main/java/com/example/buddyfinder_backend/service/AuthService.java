@@ -2,11 +2,13 @@ package com.example.buddyfinder_backend.service;
 
 import com.example.buddyfinder_backend.dto.*;
 import com.example.buddyfinder_backend.entity.User;
+import com.example.buddyfinder_backend.event.UserChangedEvent;
 import com.example.buddyfinder_backend.repository.UserRepository;
 import com.example.buddyfinder_backend.security.JwtUtil;
-import com.example.buddyfinder_backend.util.PremiumAccessUtil;
+import com.example.buddyfinder_backend.util.AvailabilityParser;
 import com.example.buddyfinder_backend.util.SanitizeUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -21,6 +23,9 @@ public class AuthService {
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
     private final ReferralService referralService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DiscoveryDeckService discoveryDeckService;
+    private final UserResponseAssembler userResponseAssembler;
 
     public AuthResponse register(RegisterRequest request) {
         // Check if email exists
@@ -60,6 +65,7 @@ public class AuthService {
                 .interests(sanitizedInterests)
                 .location(normalizedLocation)
                 .availability(sanitizedAvailability)
+                .availabilitySlots(AvailabilityParser.parse(sanitizedAvailability))
                 .latitude(toNullableFloat(request.getLatitude()))
                 .longitude(toNullableFloat(request.getLongitude()))
                 .tier(User.TierType.FREE)
@@ -70,10 +76,14 @@ public class AuthService {
                 .build();
 
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(UserChangedEvent.updated(savedUser));
 
         // Track referral if code was provided
         referralService.processReferralSignup(request.getReferralCode(), savedUser.getUserId());
 
+        // Have a swipe deck ready by the time the user opens discovery
+        discoveryDeckService.prefetch(user.getUserId());
+
         // UPDATED: Generate JWT token with isAdmin flag
         String token = jwtUtil.generateToken(
                 savedUser.getEmail(),
@@ -81,7 +91,7 @@ public class AuthService {
                 savedUser.getIsAdmin()
         );
 
-        return new AuthResponse(token, mapToUserResponse(savedUser));
+        return new AuthResponse(token, userResponseAssembler.toResponse(savedUser));
     }
 
     public AuthResponse login(LoginRequest request) {
@@ -102,6 +112,7 @@ public class AuthService {
                 user.setIsActive(true);
                 user.setBanUntil(null);
                 userRepository.save(user);
+                eventPublisher.publishEvent(UserChangedEvent.updated(user));
             } else {
                 throw new RuntimeException("Your account has been banned. Please contact support.");
             }
@@ -114,33 +125,7 @@ public class AuthService {
                 user.getIsAdmin()
         );
 
-        return new AuthResponse(token, mapToUserResponse(user));
-    }
-
-    private UserResponse mapToUserResponse(User user) {
-        UserResponse.UserResponseBuilder builder = UserResponse.builder()
-                .userId(user.getUserId())
-                .name(user.getName())
-                .email(user.getEmail())
-                .age(user.getAge())
-                .gender(user.getGender())
-                .interests(user.getInterests())
-                .location(user.getLocation())
-                .latitude(user.getLatitude())
-                .longitude(user.getLongitude())
-                .availability(user.getAvailability())
-                .bio(user.getBio())
-                .tier(user.getTier() != null ? user.getTier().name() : null)
-                .fitnessLevel(user.getFitnessLevel())
-                .isVerified(user.getIsVerified())
-                .isAdmin(user.getIsAdmin())
-                .isSuperAdmin(user.getIsSuperAdmin())
-                .incognitoMode(user.getIncognitoMode())
-                .profilePictureUrl(user.getProfilePictureUrl());
-
-        PremiumAccessUtil.applyPremiumTraits(user, builder);
-
-        return builder.build();
+        return new AuthResponse(token, userResponseAssembler.toResponse(user));
     }
 
     private Float toNullableFloat(Double value) {
@@ -0,0 +1,95 @@
+package com.example.buddyfinder_backend.service;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Rows of {@link UserSearchIndex} that passed the search filters, with their user ids.
+ *
+ * Ordered by user id, or for radius searches by distance and then user id, so that a
+ * {@link SearchCursor} can resume right after any item.
+ */
+public final class CandidateRows {
+
+    private final int[] rows;
+    private final long[] userIds;
+    private final float[] distancesKm;
+
+    private CandidateRows(int[] rows, long[] userIds, float[] distancesKm) {
+        this.rows = rows;
+        this.userIds = userIds;
+        this.distancesKm = distancesKm;
+    }
+
+    static CandidateRows of(int[] rows, long[] userIds, float[] distancesKm) {
+        if (isSorted(userIds, distancesKm)) {
+            return new CandidateRows(rows, userIds, distancesKm);
+        }
+        Integer[] order = new Integer[rows.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Comparator<Integer> byUserId = Comparator.comparingLong(i -> userIds[i]);
+        Arrays.sort(order, distancesKm == null
+                ? byUserId
+                : Comparator.<Integer>comparingDouble(i -> distancesKm[i]).thenComparing(byUserId));
+
+        int[] sortedRows = new int[rows.length];
+        long[] sortedUserIds = new long[rows.length];
+        float[] sortedDistances = distancesKm == null ? null : new float[rows.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedRows[i] = rows[order[i]];
+            sortedUserIds[i] = userIds[order[i]];
+            if (sortedDistances != null) {
+                sortedDistances[i] = distancesKm[order[i]];
+            }
+        }
+        return new CandidateRows(sortedRows, sortedUserIds, sortedDistances);
+    }
+
+    public int size() {
+        return rows.length;
+    }
+
+    public int rowAt(int position) {
+        return rows[position];
+    }
+
+    public long userIdAt(int position) {
+        return userIds[position];
+    }
+
+    public boolean hasDistances() {
+        return distancesKm != null;
+    }
+
+    public float distanceAt(int position) {
+        return distancesKm != null ? distancesKm[position] : 0f;
+    }
+
+    /**
+     * Whether {@code userId} is one of the candidates: a binary search when ordered by user id,
+     * a scan for distance-ordered radius results (which are small).
+     */
+    public boolean containsUser(long userId) {
+        if (distancesKm == null) {
+            return Arrays.binarySearch(userIds, userId) >= 0;
+        }
+        for (long candidate : userIds) {
+            if (candidate == userId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSorted(long[] userIds, float[] distancesKm) {
+        for (int i = 1; i < userIds.length; i++) {
+            int byDistance = distancesKm == null ? 0 : Float.compare(distancesKm[i - 1], distancesKm[i]);
+            if (byDistance > 0 || (byDistance == 0 && userIds[i - 1] > userIds[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
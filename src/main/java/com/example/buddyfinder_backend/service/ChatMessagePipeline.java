@@ -0,0 +1,691 @@
+package com.example.buddyfinder_backend.service;
+
+import com.example.buddyfinder_backend.dto.ChatMessage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Write-behind persistence of 1:1 chat messages.
+ *
+ * {@link #submit} gives the message a client message id (a random UUID) and its timestamp in
+ * memory, appends it to a local journal and returns once the journal is on disk, so the caller
+ * can broadcast straight away. A single writer thread then inserts queued messages with JDBC batch
+ * inserts, whenever {@code chat.pipeline.batch-size} are waiting or the oldest has waited
+ * {@code chat.pipeline.max-delay-ms}, publishes each stored message with its message id to
+ * {@code /topic/match/{id}/stored} and sends the new-message notifications.
+ *
+ * Ordering: message ids come from the database at insert time. Each flush is one transaction that
+ * first takes an advisory lock on every match it writes to, so within a conversation ids become
+ * visible in increasing order, also with several nodes writing. History cursors and read
+ * watermarks rely on that: nothing can appear later below an id a reader has already seen.
+ *
+ * Durability: the journal is fsynced before a message is acknowledged, with concurrent senders
+ * sharing one fsync. It is split into segments, and a segment is deleted once every message in
+ * it is in the database. On startup any segments left behind are replayed (inserts are idempotent
+ * on the client message id) before new messages are accepted. The journal directory belongs to one
+ * instance, which locks it while running.
+ *
+ * Backpressure: at most {@code chat.pipeline.queue-capacity} messages may be waiting for the
+ * database. A sender that finds the queue full waits up to {@code chat.pipeline.offer-timeout-ms}
+ * and is then refused, before anything is journaled or acknowledged.
+ */
+@Component
+@DependsOn("entityManagerFactory") // replay needs the schema to be in place
+@RequiredArgsConstructor
+@Slf4j
+public class ChatMessagePipeline {
+
+    private static final String INSERT_MESSAGE =
+            "INSERT INTO messages (client_message_id, match_id, sender_id, content, \"timestamp\", is_read, is_deleted) " +
+            "VALUES (?, ?, ?, ?, ?, false, false) ON CONFLICT (client_message_id) DO NOTHING";
+
+    // First key of the two-key advisory locks on a conversation's messages
+    private static final int MATCH_MESSAGES_LOCK = 1;
+
+    // Held until commit; taken in key order so writers on two nodes cannot deadlock
+    private static final String LOCK_MATCHES =
+            "SELECT pg_advisory_xact_lock(?, match_key) FROM (" +
+            "  SELECT DISTINCT CAST(m & 2147483647 AS integer) AS match_key FROM unnest(?) AS m " +
+            "  ORDER BY match_key) AS match_keys";
+
+    private static final String STORED_IDS =
+            "SELECT client_message_id, message_id FROM messages WHERE client_message_id = ANY(?)";
+
+    private static final String SEGMENT_PREFIX = "chat-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String LOCK_FILE = "journal.lock";
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MatchParticipantsCache matchParticipantsCache;
+    private final NotificationService notificationService;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Value("${chat.pipeline.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${chat.pipeline.batch-size:200}")
+    private int batchSize;
+
+    @Value("${chat.pipeline.max-delay-ms:50}")
+    private long maxDelayMillis;
+
+    @Value("${chat.pipeline.offer-timeout-ms:1000}")
+    private long offerTimeoutMillis;
+
+    // No default: every instance needs a directory of its own
+    @Value("${chat.pipeline.journal-dir}")
+    private Path journalDir;
+
+    @Value("${chat.pipeline.segment-bytes:16777216}")
+    private long segmentBytes;
+
+    private final BlockingQueue<PendingMessage> queue = new LinkedBlockingQueue<>();
+    private Semaphore capacity;
+
+    private FileChannel lockChannel;
+    private final Object journalLock = new Object();
+    private final Object syncLock = new Object();
+    private Segment segment;
+    private long appendedBytes;
+    private long syncedBytes;
+
+    private Thread writer;
+    private volatile boolean running;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong flushed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private volatile long lastFlushNanos;
+    private volatile long maxFlushNanos;
+
+    @PostConstruct
+    void start() throws IOException {
+        capacity = new Semaphore(queueCapacity);
+        Files.createDirectories(journalDir);
+        lockJournalDir();
+        long lastSegment = replayJournal();
+        synchronized (journalLock) {
+            segment = Segment.open(journalDir, lastSegment + 1);
+        }
+        running = true;
+        writer = new Thread(this::drainLoop, "chat-message-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Accept a message: the returned message has its client message id and final timestamp and is
+     * safe to broadcast, since it is durable in the journal. Its message id follows on
+     * {@code /topic/match/{id}/stored} once it is in the database.
+     */
+    public ChatMessage submit(Long matchId, Long senderId, String content) {
+        MatchParticipantsCache.Participants participants = matchParticipantsCache.get(matchId);
+        if (!participants.includes(senderId)) {
+            throw new RuntimeException("Unauthorized to send messages in this match");
+        }
+        if (content == null || content.isBlank()) {
+            throw new IllegalArgumentException("Message content is required");
+        }
+        try {
+            if (!running || !capacity.tryAcquire(offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                rejected.incrementAndGet();
+                throw new RuntimeException("Chat is busy, please try again");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while sending message");
+        }
+
+        PendingMessage message;
+        try {
+            message = new PendingMessage(UUID.randomUUID(), matchId, senderId, content,
+                    // Postgres keeps microseconds; truncate so the broadcast copy matches the stored row
+                    LocalDateTime.now().truncatedTo(ChronoUnit.MICROS),
+                    participants.otherThan(senderId), participants.nameOf(senderId));
+            message.segment = append(message);
+        } catch (RuntimeException e) {
+            capacity.release();
+            throw e;
+        }
+        queue.add(message);
+        accepted.incrementAndGet();
+        return toChatMessage(message);
+    }
+
+    public Map<String, Object> metrics() {
+        long flushCount = flushes.get();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("queueDepth", queue.size());
+        metrics.put("queueCapacity", queueCapacity);
+        metrics.put("accepted", accepted.get());
+        metrics.put("rejected", rejected.get());
+        metrics.put("flushed", flushed.get());
+        metrics.put("dropped", dropped.get());
+        metrics.put("flushes", flushCount);
+        metrics.put("lastFlushMs", lastFlushNanos / 1_000_000.0);
+        metrics.put("maxFlushMs", maxFlushNanos / 1_000_000.0);
+        metrics.put("avgFlushMs", flushCount > 0 ? totalFlushNanos.get() / 1_000_000.0 / flushCount : 0.0);
+        return metrics;
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        List<PendingMessage> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty() && !flush(remaining)) {
+            log.warn("{} chat messages stay in the journal and will be replayed on the next start", remaining.size());
+        }
+        synchronized (journalLock) {
+            segment.sealed = true;
+            segment.deleteIfDone();
+        }
+        try {
+            lockChannel.close();
+        } catch (IOException e) {
+            log.warn("Could not release chat journal lock: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Hold a lock on the journal directory for as long as this instance runs. A second instance
+     * pointed at the same directory would replay, and delete, segments the first is still
+     * writing, so it fails to start instead. The operating system releases the lock if the
+     * process dies.
+     */
+    private void lockJournalDir() throws IOException {
+        FileChannel channel = FileChannel.open(journalDir.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IllegalStateException("Chat journal directory " + journalDir.toAbsolutePath()
+                    + " is in use by another instance; set chat.pipeline.journal-dir to a directory of its own");
+        }
+        lockChannel = channel;
+    }
+
+    /**
+     * Append the message to the journal and return once it is on disk. Senders that arrive while
+     * an fsync is running are covered by the next one together.
+     */
+    private Segment append(PendingMessage message) {
+        ByteBuffer record = encode(message);
+        Segment target;
+        long end;
+        try {
+            synchronized (journalLock) {
+                if (segment.size >= segmentBytes) {
+                    // Sync the full segment before moving on, so older records are never behind newer ones
+                    segment.channel.force(false);
+                    segment.sealed = true;
+                    segment.deleteIfDone();
+                    segment = Segment.open(journalDir, segment.number + 1);
+                }
+                target = segment;
+                while (record.hasRemaining()) {
+                    target.size += target.channel.write(record);
+                }
+                target.unflushed.incrementAndGet();
+                appendedBytes += record.limit();
+                end = appendedBytes;
+            }
+            synchronized (syncLock) {
+                if (syncedBytes < end) {
+                    Segment current;
+                    long upTo;
+                    synchronized (journalLock) {
+                        current = segment;
+                        upTo = appendedBytes;
+                    }
+                    current.channel.force(false);
+                    syncedBytes = upTo;
+                }
+            }
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write chat journal", e);
+        }
+    }
+
+    private void drainLoop() {
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                if (batch.isEmpty()) {
+                    PendingMessage first = queue.poll(1, TimeUnit.SECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                }
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+                while (batch.size() < batchSize) {
+                    long wait = deadline - System.nanoTime();
+                    PendingMessage next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                if (flush(batch)) {
+                    batch.clear();
+                } else {
+                    // Database unavailable: keep the batch and try again
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                // Shutting down: stop() flushes the rest, the journal covers anything it cannot
+                Thread.currentThread().interrupt();
+                running = false;
+                queue.addAll(batch);
+            }
+        }
+    }
+
+    /**
+     * Insert the batch, publish the message ids and notify the recipients. Returns false, leaving
+     * the rest of the batch untouched, if the database could not be reached.
+     */
+    private boolean flush(List<PendingMessage> batch) {
+        long started = System.nanoTime();
+        List<PendingMessage> written = new ArrayList<>(batch.size());
+        List<PendingMessage> handled = new ArrayList<>(batch.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(batch));
+            written.addAll(batch);
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Chat batch of {} failed, retrying individually: {}", batch.size(), e.getMessage());
+            for (PendingMessage message : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(List.of(message)));
+                    written.add(message);
+                    handled.add(message);
+                } catch (DataIntegrityViolationException rejectedRow) {
+                    // The match or sender was deleted in the meantime
+                    dropped.incrementAndGet();
+                    log.warn("Dropping chat message {} for match {}: {}",
+                            message.clientMessageId, message.matchId, rejectedRow.getMessage());
+                    done(message);
+                    handled.add(message);
+                } catch (DataAccessException | TransactionException unavailable) {
+                    log.error("Chat messages cannot be written, will retry: {}", unavailable.getMessage());
+                    batch.removeAll(handled);
+                    stored(written);
+                    return false;
+                }
+            }
+        }
+        stored(written);
+
+        long elapsed = System.nanoTime() - started;
+        flushes.incrementAndGet();
+        totalFlushNanos.addAndGet(elapsed);
+        lastFlushNanos = elapsed;
+        maxFlushNanos = Math.max(maxFlushNanos, elapsed);
+        return true;
+    }
+
+    /**
+     * Insert the messages and give them the ids the database assigned, which for a message
+     * inserted before (a replay) is the id it got then. Runs inside the caller's transaction.
+     */
+    private void insert(List<PendingMessage> messages) {
+        Long[] matchIds = messages.stream().map(message -> message.matchId).distinct().toArray(Long[]::new);
+        jdbcTemplate.query(con -> {
+            PreparedStatement statement = con.prepareStatement(LOCK_MATCHES);
+            statement.setInt(1, MATCH_MESSAGES_LOCK);
+            statement.setArray(2, con.createArrayOf("bigint", matchIds));
+            return statement;
+        }, rs -> {
+        });
+
+        jdbcTemplate.batchUpdate(INSERT_MESSAGE, messages, messages.size(), (statement, message) -> {
+            statement.setString(1, message.clientMessageId.toString());
+            statement.setLong(2, message.matchId);
+            statement.setLong(3, message.senderId);
+            statement.setString(4, message.content);
+            statement.setObject(5, message.timestamp);
+        });
+
+        Map<String, Long> ids = storedIds(messages);
+        for (PendingMessage message : messages) {
+            message.messageId = ids.get(message.clientMessageId.toString());
+        }
+    }
+
+    /**
+     * Insert journaled messages and return those that were not in the database yet, the only
+     * ones whose recipients have not been notified. Runs inside the caller's transaction.
+     */
+    private List<PendingMessage> insertReplayed(List<PendingMessage> messages) {
+        Map<String, Long> existing = storedIds(messages);
+        insert(messages);
+        return messages.stream()
+                .filter(message -> !existing.containsKey(message.clientMessageId.toString()))
+                .toList();
+    }
+
+    private Map<String, Long> storedIds(List<PendingMessage> messages) {
+        String[] clientIds = messages.stream().map(message -> message.clientMessageId.toString()).toArray(String[]::new);
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement statement = con.prepareStatement(STORED_IDS);
+            statement.setArray(1, con.createArrayOf("varchar", clientIds));
+            return statement;
+        }, rs -> {
+            ids.put(rs.getString(1), rs.getLong(2));
+        });
+        return ids;
+    }
+
+    private void stored(List<PendingMessage> written) {
+        written.forEach(this::done);
+        flushed.addAndGet(written.size());
+        publishStored(written);
+        notifyRecipients(written);
+    }
+
+    private void done(PendingMessage message) {
+        capacity.release();
+        if (message.segment.unflushed.decrementAndGet() == 0) {
+            synchronized (journalLock) {
+                message.segment.deleteIfDone();
+            }
+        }
+    }
+
+    /**
+     * Tell the conversation which message id each acknowledged message got.
+     */
+    private void publishStored(List<PendingMessage> messages) {
+        for (PendingMessage message : messages) {
+            if (message.messageId == null) {
+                continue;
+            }
+            try {
+                messagingTemplate.convertAndSend("/topic/match/" + message.matchId + "/stored", toChatMessage(message));
+            } catch (Exception e) {
+                log.error("Failed to publish stored chat message (non-critical): {}", e.getMessage());
+            }
+        }
+    }
+
+    private void notifyRecipients(List<PendingMessage> messages) {
+        for (PendingMessage message : messages) {
+            try {
+                notificationService.notifyNewMessage(message.recipientId, message.matchId, message.senderName);
+            } catch (Exception e) {
+                log.error("Failed to send notification (non-critical): {}", e.getMessage());
+            }
+        }
+    }
+
+    private static ChatMessage toChatMessage(PendingMessage message) {
+        return ChatMessage.builder()
+                .messageId(message.messageId)
+                .clientMessageId(message.clientMessageId.toString())
+                .matchId(message.matchId)
+                .senderId(message.senderId)
+                .senderName(message.senderName)
+                .content(message.content)
+                .timestamp(message.timestamp)
+                .isRead(false)
+                .build();
+    }
+
+    /**
+     * Insert every message found in leftover journal segments, then delete them. Returns the
+     * highest segment number seen, so new segments continue after it.
+     *
+     * Recipients are notified of the messages this replay inserted. A message that is already in
+     * the database was written by the previous run, which notified them after its flush.
+     */
+    private long replayJournal() throws IOException {
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(journalDir)) {
+            segments = files.filter(path -> Segment.numberOf(path) >= 0)
+                    .sorted((a, b) -> Long.compare(Segment.numberOf(a), Segment.numberOf(b)))
+                    .toList();
+        }
+        long lastSegment = 0;
+        int replayed = 0;
+        for (Path path : segments) {
+            lastSegment = Segment.numberOf(path);
+            List<PendingMessage> messages = readSegment(path);
+            messages.forEach(this::resolveParticipants);
+            for (int from = 0; from < messages.size(); from += batchSize) {
+                List<PendingMessage> chunk = messages.subList(from, Math.min(from + batchSize, messages.size()));
+                List<PendingMessage> inserted = new ArrayList<>(chunk.size());
+                try {
+                    inserted.addAll(transactionTemplate.execute(status -> insertReplayed(chunk)));
+                } catch (DataIntegrityViolationException e) {
+                    for (PendingMessage message : chunk) {
+                        try {
+                            inserted.addAll(transactionTemplate.execute(status -> insertReplayed(List.of(message))));
+                        } catch (DataIntegrityViolationException rejectedRow) {
+                            log.warn("Dropping journaled chat message {}: {}",
+                                    message.clientMessageId, rejectedRow.getMessage());
+                        }
+                    }
+                }
+                publishStored(chunk);
+                notifyRecipients(inserted.stream().filter(message -> message.senderName != null).toList());
+            }
+            replayed += messages.size();
+            Files.delete(path);
+        }
+        if (replayed > 0) {
+            log.info("Replayed {} chat messages from {} journal segments", replayed, segments.size());
+        }
+        return lastSegment;
+    }
+
+    /**
+     * The journal only keeps what is stored, so the recipient and sender name of a replayed
+     * message come from its match. Left unset if the match is gone; its insert will be rejected.
+     */
+    private void resolveParticipants(PendingMessage message) {
+        try {
+            MatchParticipantsCache.Participants participants = matchParticipantsCache.get(message.matchId);
+            message.recipientId = participants.otherThan(message.senderId);
+            message.senderName = participants.nameOf(message.senderId);
+        } catch (RuntimeException e) {
+            log.warn("No participants for journaled chat message {}: {}", message.clientMessageId, e.getMessage());
+        }
+    }
+
+    /**
+     * Records of one segment, stopping at the first torn or corrupt record (a write that never
+     * completed, so it was never acknowledged).
+     */
+    private static List<PendingMessage> readSegment(Path path) throws IOException {
+        List<PendingMessage> messages = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        while (buffer.remaining() >= Integer.BYTES * 2) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                break;
+            }
+            ByteBuffer payload = buffer.slice(buffer.position(), length);
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            buffer.position(buffer.position() + length);
+            try {
+                messages.add(decode(payload));
+            } catch (EOFException | RuntimeException e) {
+                break;
+            }
+        }
+        return messages;
+    }
+
+    // [length][crc32][clientId (2 longs), matchId, senderId, epochSecond, nano, contentLength, content]
+    private static ByteBuffer encode(PendingMessage message) {
+        byte[] content = message.content.getBytes(StandardCharsets.UTF_8);
+        int length = Long.BYTES * 5 + Integer.BYTES * 2 + content.length;
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * 2 + length);
+        buffer.putInt(length).putInt(0)
+                .putLong(message.clientMessageId.getMostSignificantBits())
+                .putLong(message.clientMessageId.getLeastSignificantBits())
+                .putLong(message.matchId)
+                .putLong(message.senderId)
+                .putLong(message.timestamp.toEpochSecond(ZoneOffset.UTC))
+                .putInt(message.timestamp.getNano())
+                .putInt(content.length)
+                .put(content);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), Integer.BYTES * 2, length);
+        buffer.putInt(Integer.BYTES, (int) crc.getValue());
+        return buffer.flip();
+    }
+
+    private static PendingMessage decode(ByteBuffer payload) throws EOFException {
+        UUID clientMessageId = new UUID(payload.getLong(), payload.getLong());
+        long matchId = payload.getLong();
+        long senderId = payload.getLong();
+        LocalDateTime timestamp = LocalDateTime.ofEpochSecond(payload.getLong(), payload.getInt(), ZoneOffset.UTC);
+        int contentLength = payload.getInt();
+        if (contentLength != payload.remaining()) {
+            throw new EOFException("content length mismatch");
+        }
+        byte[] content = new byte[contentLength];
+        payload.get(content);
+        return new PendingMessage(clientMessageId, matchId, senderId,
+                new String(content, StandardCharsets.UTF_8), timestamp, 0, null);
+    }
+
+    private static final class PendingMessage {
+        private final UUID clientMessageId;
+        private final long matchId;
+        private final long senderId;
+        private final String content;
+        private final LocalDateTime timestamp;
+        // Not journaled: resolved again from the match on replay
+        private long recipientId;
+        private String senderName;
+        private Segment segment;
+        // Assigned by the database on insert
+        private Long messageId;
+
+        private PendingMessage(UUID clientMessageId, long matchId, long senderId, String content,
+                               LocalDateTime timestamp, long recipientId, String senderName) {
+            this.clientMessageId = clientMessageId;
+            this.matchId = matchId;
+            this.senderId = senderId;
+            this.content = content;
+            this.timestamp = timestamp;
+            this.recipientId = recipientId;
+            this.senderName = senderName;
+        }
+    }
+
+    /**
+     * One journal file. Deleted once it no longer receives appends and all its messages are in
+     * the database; callers hold the journal lock.
+     */
+    private static final class Segment {
+        private final long number;
+        private final Path path;
+        private final FileChannel channel;
+        private final AtomicInteger unflushed = new AtomicInteger();
+        private long size;
+        private boolean sealed;
+        private boolean deleted;
+
+        private Segment(long number, Path path, FileChannel channel) {
+            this.number = number;
+            this.path = path;
+            this.channel = channel;
+        }
+
+        static Segment open(Path dir, long number) throws IOException {
+            Path path = dir.resolve(SEGMENT_PREFIX + number + SEGMENT_SUFFIX);
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            return new Segment(number, path, channel);
+        }
+
+        static long numberOf(Path path) {
+            String name = path.getFileName().toString();
+            if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+                return -1;
+            }
+            try {
+                return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+
+        void deleteIfDone() {
+            if (!sealed || deleted || unflushed.get() > 0) {
+                return;
+            }
+            deleted = true;
+            try {
+                channel.close();
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("Could not delete chat journal segment {}: {}", path, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.buddyfinder_backend.service;
+
+import com.example.buddyfinder_backend.security.StompUserResolver;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Which users currently have a conversation open, i.e. are subscribed to {@code /topic/match/{id}}
+ * or {@code /topic/group/{roomId}} from a STOMP session whose user is known (see
+ * {@link StompUserResolver}). Sessions without a valid token are not tracked, so their users are
+ * never treated as viewing anything.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConversationSubscriptionRegistry {
+
+    private static final Pattern CONVERSATION = Pattern.compile("^/topic/(match|group)/(\\d+)$");
+
+    private final StompUserResolver stompUserResolver;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    // "MATCH:12" -> user id -> number of that user's subscriptions to it
+    private final Map<String, Map<Long, Integer>> viewers = new ConcurrentHashMap<>();
+
+    /**
+     * Whether the user has the conversation open. {@code relatedType} is {@code MATCH} or
+     * {@code GROUP}, as on notifications.
+     */
+    public boolean isViewing(Long userId, String relatedType, Long relatedId) {
+        Map<Long, Integer> users = viewers.get(relatedType + ":" + relatedId);
+        return users != null && users.containsKey(userId);
+    }
+
+    @EventListener
+    public void onConnect(SessionConnectEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Long userId = stompUserResolver.resolve(accessor);
+        if (userId != null && accessor.getSessionId() != null) {
+            sessions.put(accessor.getSessionId(), new Session(userId));
+        }
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Session session = sessions.get(accessor.getSessionId());
+        String destination = accessor.getDestination();
+        if (session == null || destination == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        Matcher matcher = CONVERSATION.matcher(destination);
+        if (!matcher.matches()) {
+            return;
+        }
+        String conversation = matcher.group(1).toUpperCase() + ":" + matcher.group(2);
+        synchronized (session) {
+            if (session.subscriptions.putIfAbsent(accessor.getSubscriptionId(), conversation) == null) {
+                viewers.compute(conversation, (key, users) -> {
+                    Map<Long, Integer> viewing = users != null ? users : new ConcurrentHashMap<>();
+                    viewing.merge(session.userId, 1, Integer::sum);
+                    return viewing;
+                });
+            }
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Session session = sessions.get(accessor.getSessionId());
+        if (session == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        synchronized (session) {
+            String conversation = session.subscriptions.remove(accessor.getSubscriptionId());
+            if (conversation != null) {
+                release(conversation, session.userId);
+            }
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Session session = sessions.remove(event.getSessionId());
+        if (session == null) {
+            return;
+        }
+        synchronized (session) {
+            session.subscriptions.values().forEach(conversation -> release(conversation, session.userId));
+            session.subscriptions.clear();
+        }
+    }
+
+    private void release(String conversation, Long userId) {
+        viewers.computeIfPresent(conversation, (key, users) -> {
+            users.computeIfPresent(userId, (id, count) -> count > 1 ? count - 1 : null);
+            return users.isEmpty() ? null : users;
+        });
+    }
+
+    private static final class Session {
+        private final Long userId;
+        // subscription id -> conversation
+        private final Map<String, String> subscriptions = new ConcurrentHashMap<>();
+
+        private Session(Long userId) {
+            this.userId = userId;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.buddyfinder_backend.service;
+
+import com.example.buddyfinder_backend.event.UserChangedEvent;
+import com.example.buddyfinder_backend.util.LongHashSet;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-computed swipe decks: for each recently active user, a queue of candidate ids ranked by
+ * {@link UserSearchIndex#rankTopK}.
+ *
+ * Serving a card is a queue pop. Candidates that were swiped, banned or hidden after the deck was
+ * built are dropped when they reach the front. When a deck runs low it is topped up on the bounded
+ * {@code discoveryDeckExecutor}, so ranking happens off the request thread. Only a user's very
+ * first request, before any deck exists, ranks synchronously. Decks idle for longer than
+ * {@code discovery.deck.idle-minutes} are evicted.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DiscoveryDeckService {
+
+    private final UserSearchIndex userSearchIndex;
+    private final SwipeHistoryCache swipeHistoryCache;
+    private final SearchResultCache searchResultCache;
+    private final ThreadPoolTaskExecutor discoveryDeckExecutor;
+
+    private final Map<Long, Deck> decks = new ConcurrentHashMap<>();
+
+    @Value("${discovery.deck.size:100}")
+    private int deckSize;
+
+    @Value("${discovery.deck.low-water:20}")
+    private int lowWater;
+
+    @Value("${discovery.deck.idle-minutes:30}")
+    private long idleMinutes;
+
+    /**
+     * Next {@code count} candidate ids for the user's swipe screen, best first.
+     */
+    public List<Long> next(Long userId, int count) {
+        Deck deck = decks.computeIfAbsent(userId, id -> new Deck());
+        deck.lastUsed = System.currentTimeMillis();
+        if (!deck.built) {
+            refill(userId, deck);
+        }
+
+        List<Long> ids = new ArrayList<>(count);
+        boolean startRefill;
+        synchronized (deck) {
+            while (ids.size() < count && !deck.queue.isEmpty()) {
+                long candidateId = deck.queue.poll();
+                if (swipeHistoryCache.hasSwiped(userId, candidateId) || !userSearchIndex.isDiscoverable(candidateId)) {
+                    continue;
+                }
+                deck.served.add(candidateId);
+                ids.add(candidateId);
+            }
+            startRefill = deck.queue.size() < lowWater && !deck.refilling;
+            if (startRefill) {
+                deck.refilling = true;
+            }
+        }
+        if (startRefill) {
+            submitRefill(userId, deck);
+        }
+        return ids;
+    }
+
+    /**
+     * Build a deck in the background for a user who is likely to start swiping soon.
+     */
+    public void prefetch(Long userId) {
+        Deck deck = decks.computeIfAbsent(userId, id -> new Deck());
+        deck.lastUsed = System.currentTimeMillis();
+        synchronized (deck) {
+            if (deck.built || deck.refilling) {
+                return;
+            }
+            deck.refilling = true;
+        }
+        submitRefill(userId, deck);
+    }
+
+    /**
+     * A user's own profile change (location, interests, ...) makes their ranking stale; changes to
+     * candidates are caught lazily when they reach the front of a deck.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        decks.remove(event.getUserId());
+    }
+
+    @Scheduled(fixedDelayString = "${discovery.deck.sweep-interval-ms:60000}")
+    public void evictIdleDecks() {
+        long cutoff = System.currentTimeMillis() - idleMinutes * 60_000L;
+        int before = decks.size();
+        decks.values().removeIf(deck -> deck.lastUsed < cutoff);
+        int evicted = before - decks.size();
+        if (evicted > 0) {
+            log.debug("Evicted {} idle discovery decks, {} remain", evicted, decks.size());
+        }
+    }
+
+    private void submitRefill(Long userId, Deck deck) {
+        try {
+            discoveryDeckExecutor.execute(() -> refill(userId, deck));
+        } catch (TaskRejectedException e) {
+            // Executor saturated: the next pop will try again
+            synchronized (deck) {
+                deck.refilling = false;
+            }
+        }
+    }
+
+    /**
+     * Rank the user's candidates and append the ones not already queued or served. Once every
+     * candidate has been served, the served set is reset so unswiped users can come around again.
+     */
+    private void refill(Long userId, Deck deck) {
+        try {
+            LongHashSet excluded = swipeHistoryCache.swipedBy(userId);
+            synchronized (deck) {
+                deck.queue.forEach(excluded::add);
+                deck.served.forEach(excluded::add);
+            }
+
+            long started = System.nanoTime();
+            CandidateRows candidates = searchResultCache.findCandidates(null);
+            RankedCandidates ranked = userSearchIndex.rankTopK(userId, candidates, excluded, null, deckSize);
+
+            synchronized (deck) {
+                LongHashSet queued = new LongHashSet(deck.queue.size());
+                deck.queue.forEach(queued::add);
+                for (int i = 0; i < ranked.size(); i++) {
+                    long candidateId = ranked.userIdAt(i);
+                    if (queued.add(candidateId)) {
+                        deck.queue.add(candidateId);
+                    }
+                }
+                if (ranked.size() == 0 && deck.queue.isEmpty()) {
+                    deck.served = new LongHashSet();
+                }
+                deck.built = true;
+            }
+            log.debug("Refilled discovery deck for user {} with {} of {} candidates in {} ms",
+                    userId, ranked.size(), candidates.size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Failed to refill discovery deck for user {}: {}", userId, e.getMessage());
+        } finally {
+            synchronized (deck) {
+                deck.refilling = false;
+            }
+        }
+    }
+
+    private static final class Deck {
+        private final ArrayDeque<Long> queue = new ArrayDeque<>();
+        private LongHashSet served = new LongHashSet();
+        private boolean built;
+        private boolean refilling;
+        private volatile long lastUsed;
+    }
+}
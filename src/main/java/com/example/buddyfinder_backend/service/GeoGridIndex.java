@@ -0,0 +1,254 @@
+package com.example.buddyfinder_backend.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fixed-size latitude/longitude cell grid over the rows of {@link UserSearchIndex}.
+ *
+ * A radius query only visits the cells overlapping the query's bounding box. Cells that lie
+ * completely inside the circle accept their rows with a cheap planar distance (used for
+ * ordering only); exact haversine distance is computed just for rows in border cells.
+ *
+ * Not thread-safe: the owning index guards it with its own read/write lock.
+ */
+final class GeoGridIndex {
+
+    static final double EARTH_RADIUS_KM = 6371.0;
+
+    private static final double CELL_DEGREES = 0.1;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180.0;
+    private static final int LAT_CELLS = (int) Math.ceil(180 / CELL_DEGREES);
+    private static final int LON_CELLS = (int) Math.ceil(360 / CELL_DEGREES);
+    private static final long NO_CELL = -1L;
+
+    private final Map<Long, RowList> cells = new HashMap<>();
+    private long[] cellByRow = new long[0];
+
+    void put(int row, float latitude, float longitude) {
+        ensureCapacity(row);
+        long cell = Float.isNaN(latitude) || Float.isNaN(longitude)
+                ? NO_CELL
+                : cellKey(latCell(latitude), lonCell(longitude));
+        long previous = cellByRow[row];
+        if (previous == cell) {
+            return;
+        }
+        if (previous != NO_CELL) {
+            RowList list = cells.get(previous);
+            if (list != null && list.remove(row) && list.size == 0) {
+                cells.remove(previous);
+            }
+        }
+        if (cell != NO_CELL) {
+            cells.computeIfAbsent(cell, key -> new RowList()).add(row);
+        }
+        cellByRow[row] = cell;
+    }
+
+    void remove(int row) {
+        put(row, Float.NaN, Float.NaN);
+    }
+
+    /**
+     * Rows from {@code allowed} within {@code radiusKm} of the given point, nearest first.
+     */
+    Hits query(double latitude, double longitude, double radiusKm,
+               float[] latitudes, float[] longitudes, BitSet allowed) {
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        double minLat = Math.max(-90.0, latitude - latDelta);
+        double maxLat = Math.min(90.0, latitude + latDelta);
+        double widestLat = Math.max(Math.abs(minLat), Math.abs(maxLat));
+        double lonDelta = widestLat >= 89.9
+                ? 180.0
+                : Math.min(180.0, radiusKm / (KM_PER_DEGREE * Math.cos(Math.toRadians(widestLat))));
+
+        int firstLatCell = latCell(minLat);
+        int lastLatCell = latCell(maxLat);
+        int lonCellSpan = lonDelta >= 180.0 ? LON_CELLS : lonCell(longitude + lonDelta) - lonCell(longitude - lonDelta) + 1;
+        if (lonCellSpan <= 0) {
+            lonCellSpan += LON_CELLS;
+        }
+        int firstLonCell = lonDelta >= 180.0 ? 0 : lonCell(longitude - lonDelta);
+
+        HitCollector collector = new HitCollector(latitude, longitude, radiusKm, latitudes, longitudes, allowed);
+        long boxCells = (long) (lastLatCell - firstLatCell + 1) * Math.min(lonCellSpan, LON_CELLS);
+        if (boxCells > cells.size()) {
+            // Very large radius: walking the occupied cells is cheaper than walking the box
+            for (Map.Entry<Long, RowList> entry : cells.entrySet()) {
+                long key = entry.getKey();
+                int latCell = (int) (key / LON_CELLS);
+                int lonCell = (int) (key % LON_CELLS);
+                if (latCell >= firstLatCell && latCell <= lastLatCell
+                        && inLonRange(lonCell, firstLonCell, lonCellSpan)) {
+                    collector.visit(latCell, lonCell, entry.getValue());
+                }
+            }
+        } else {
+            for (int latCell = firstLatCell; latCell <= lastLatCell; latCell++) {
+                for (int offset = 0; offset < Math.min(lonCellSpan, LON_CELLS); offset++) {
+                    int lonCell = (firstLonCell + offset) % LON_CELLS;
+                    RowList list = cells.get(cellKey(latCell, lonCell));
+                    if (list != null) {
+                        collector.visit(latCell, lonCell, list);
+                    }
+                }
+            }
+        }
+        return collector.sortedHits();
+    }
+
+    static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double latDistance = Math.toRadians(lat2 - lat1);
+        double lonDistance = Math.toRadians(lon2 - lon1);
+
+        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
+
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+
+        return EARTH_RADIUS_KM * c;
+    }
+
+    private static boolean inLonRange(int lonCell, int firstLonCell, int span) {
+        if (span >= LON_CELLS) {
+            return true;
+        }
+        int offset = Math.floorMod(lonCell - firstLonCell, LON_CELLS);
+        return offset < span;
+    }
+
+    private static int latCell(double latitude) {
+        return Math.min(LAT_CELLS - 1, (int) Math.floor((latitude + 90.0) / CELL_DEGREES));
+    }
+
+    private static int lonCell(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180.0) / CELL_DEGREES), LON_CELLS);
+    }
+
+    private static long cellKey(int latCell, int lonCell) {
+        return (long) latCell * LON_CELLS + lonCell;
+    }
+
+    private void ensureCapacity(int row) {
+        if (row >= cellByRow.length) {
+            int previousLength = cellByRow.length;
+            cellByRow = Arrays.copyOf(cellByRow, Math.max(row + 1, previousLength * 2));
+            Arrays.fill(cellByRow, previousLength, cellByRow.length, NO_CELL);
+        }
+    }
+
+    /**
+     * Query result: parallel arrays of rows and distances, ordered by distance.
+     */
+    static final class Hits {
+        final int[] rows;
+        final float[] distancesKm;
+
+        private Hits(int[] rows, float[] distancesKm) {
+            this.rows = rows;
+            this.distancesKm = distancesKm;
+        }
+    }
+
+    private static final class HitCollector {
+        private final double latitude;
+        private final double longitude;
+        private final double radiusKm;
+        private final double cosLatitude;
+        private final float[] latitudes;
+        private final float[] longitudes;
+        private final BitSet allowed;
+
+        // distance bits in the high word, row in the low word: sorting the longs sorts by distance
+        private long[] packed = new long[64];
+        private int size;
+
+        private HitCollector(double latitude, double longitude, double radiusKm,
+                             float[] latitudes, float[] longitudes, BitSet allowed) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.radiusKm = radiusKm;
+            this.cosLatitude = Math.cos(Math.toRadians(latitude));
+            this.latitudes = latitudes;
+            this.longitudes = longitudes;
+            this.allowed = allowed;
+        }
+
+        void visit(int latCell, int lonCell, RowList list) {
+            boolean inside = isCellInside(latCell, lonCell);
+            for (int i = 0; i < list.size; i++) {
+                int row = list.rows[i];
+                if (!allowed.get(row)) {
+                    continue;
+                }
+                double distance = inside
+                        ? planarKm(latitudes[row], longitudes[row])
+                        : haversineKm(latitude, longitude, latitudes[row], longitudes[row]);
+                if (inside || distance <= radiusKm) {
+                    add(row, (float) Math.min(distance, radiusKm));
+                }
+            }
+        }
+
+        private boolean isCellInside(int latCell, int lonCell) {
+            double south = latCell * CELL_DEGREES - 90.0;
+            double west = lonCell * CELL_DEGREES - 180.0;
+            double north = south + CELL_DEGREES;
+            double east = west + CELL_DEGREES;
+            return haversineKm(latitude, longitude, south, west) <= radiusKm
+                    && haversineKm(latitude, longitude, south, east) <= radiusKm
+                    && haversineKm(latitude, longitude, north, west) <= radiusKm
+                    && haversineKm(latitude, longitude, north, east) <= radiusKm;
+        }
+
+        private double planarKm(double otherLatitude, double otherLongitude) {
+            double dLat = otherLatitude - latitude;
+            double dLon = Math.IEEEremainder(otherLongitude - longitude, 360.0) * cosLatitude;
+            return Math.sqrt(dLat * dLat + dLon * dLon) * KM_PER_DEGREE;
+        }
+
+        private void add(int row, float distance) {
+            if (size == packed.length) {
+                packed = Arrays.copyOf(packed, size * 2);
+            }
+            packed[size++] = ((long) Float.floatToIntBits(distance) << 32) | row;
+        }
+
+        Hits sortedHits() {
+            Arrays.sort(packed, 0, size);
+            int[] rows = new int[size];
+            float[] distances = new float[size];
+            for (int i = 0; i < size; i++) {
+                rows[i] = (int) packed[i];
+                distances[i] = Float.intBitsToFloat((int) (packed[i] >>> 32));
+            }
+            return new Hits(rows, distances);
+        }
+    }
+
+    private static final class RowList {
+        private int[] rows = new int[4];
+        private int size;
+
+        void add(int row) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+        }
+
+        boolean remove(int row) {
+            for (int i = 0; i < size; i++) {
+                if (rows[i] == row) {
+                    rows[i] = rows[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -2,16 +2,23 @@ package com.example.buddyfinder_backend.service;
 
 import com.example.buddyfinder_backend.dto.ChatRoomInfoDto;
 import com.example.buddyfinder_backend.dto.ChatRoomMemberDto;
+import com.example.buddyfinder_backend.dto.GroupChatMessagePage;
 import com.example.buddyfinder_backend.dto.GroupChatMessageRequest;
 import com.example.buddyfinder_backend.dto.GroupChatMessageResponse;
 import com.example.buddyfinder_backend.dto.GroupTypingEvent;
+import com.example.buddyfinder_backend.dto.RoomUnreadCount;
 import com.example.buddyfinder_backend.entity.*;
 import com.example.buddyfinder_backend.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
@@ -25,6 +32,14 @@ public class GroupChatService {
     private final ActivityRepository activityRepository;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final RoomMembershipCache roomMembershipCache;
+    private final TypingThrottle typingThrottle;
+
+    @Value("${chat.history.page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${chat.history.max-page-size:100}")
+    private int maxPageSize;
 
     // ========== ROOM INIT ==========
 
@@ -42,14 +57,6 @@ public class GroupChatService {
         User owner = userRepository.findById(ownerId)
                 .orElseThrow(() -> new RuntimeException("Owner user not found"));
 
-        ChatRoomMember ownerMember = ChatRoomMember.builder()
-                .chatRoom(room)
-                .user(owner)
-                .role(ChatRoomMember.Role.OWNER)
-                .joinedAt(LocalDateTime.now())
-                .build();
-        chatRoomMemberRepository.save(ownerMember);
-
         // optional: tạo system message
         GroupMessage systemMsg = GroupMessage.builder()
                 .chatRoom(room)
@@ -58,7 +65,16 @@ public class GroupChatService {
                 .systemMessage(true)
                 .timestamp(LocalDateTime.now())
                 .build();
-        groupMessageRepository.save(systemMsg);
+        systemMsg = groupMessageRepository.save(systemMsg);
+
+        ChatRoomMember ownerMember = ChatRoomMember.builder()
+                .chatRoom(room)
+                .user(owner)
+                .role(ChatRoomMember.Role.OWNER)
+                .joinedAt(LocalDateTime.now())
+                .lastReadMessageId(systemMsg.getId())
+                .build();
+        chatRoomMemberRepository.save(ownerMember);
 
         return room;
     }
@@ -108,15 +124,6 @@ public class GroupChatService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        chatRoomMemberRepository.save(
-                ChatRoomMember.builder()
-                        .chatRoom(room)
-                        .user(user)
-                        .role(ChatRoomMember.Role.MEMBER)
-                        .joinedAt(LocalDateTime.now())
-                        .build()
-        );
-
         // system message
         GroupMessage system = GroupMessage.builder()
                 .chatRoom(room)
@@ -125,7 +132,19 @@ public class GroupChatService {
                 .systemMessage(true)
                 .timestamp(LocalDateTime.now())
                 .build();
-        groupMessageRepository.save(system);
+        system = groupMessageRepository.save(system);
+
+        // Earlier history does not count as unread for a new member
+        chatRoomMemberRepository.save(
+                ChatRoomMember.builder()
+                        .chatRoom(room)
+                        .user(user)
+                        .role(ChatRoomMember.Role.MEMBER)
+                        .joinedAt(LocalDateTime.now())
+                        .lastReadMessageId(system.getId())
+                        .build()
+        );
+        roomMembershipCache.memberJoined(room.getId(), userId, user.getName());
     }
 
     @Transactional
@@ -135,6 +154,8 @@ public class GroupChatService {
                 .orElseThrow(() -> new RuntimeException("User is not in this room"));
 
         chatRoomMemberRepository.delete(member);
+        roomMembershipCache.memberLeft(roomId, userId);
+        typingThrottle.forget(roomId, userId);
 
         ChatRoom room = member.getChatRoom();
         User user = member.getUser();
@@ -153,19 +174,17 @@ public class GroupChatService {
 
     @Transactional
     public GroupChatMessageResponse sendMessage(Long roomId, GroupChatMessageRequest req) {
-        ChatRoom room = chatRoomRepository.findById(roomId)
-                .orElseThrow(() -> new RuntimeException("Chat room not found"));
-
-        if (!chatRoomMemberRepository.existsByChatRoom_IdAndUser_UserId(roomId, req.getSenderId())) {
+        Long senderId = req.getSenderId();
+        RoomMembershipCache.RoomMembers room = roomMembershipCache.get(roomId, senderId);
+        if (!room.includes(senderId)) {
             throw new RuntimeException("User is not a member of this room");
         }
+        String senderName = room.nameOf(senderId);
 
-        User sender = userRepository.findById(req.getSenderId())
-                .orElseThrow(() -> new RuntimeException("Sender not found"));
-
+        // Membership is already checked: references are enough for the foreign keys
         GroupMessage msg = GroupMessage.builder()
-                .chatRoom(room)
-                .sender(sender)
+                .chatRoom(chatRoomRepository.getReferenceById(roomId))
+                .sender(userRepository.getReferenceById(senderId))
                 .content(req.getContent())
                 .systemMessage(false)
                 .timestamp(LocalDateTime.now())
@@ -173,21 +192,19 @@ public class GroupChatService {
 
         msg = groupMessageRepository.save(msg);
 
-        // notify other members
-        List<ChatRoomMember> members = chatRoomMemberRepository.findByChatRoom_Id(roomId);
-        String activityTitle = room.getActivity() != null ? room.getActivity().getTitle() : "Group chat";
-        for (ChatRoomMember member : members) {
-            Long memberId = member.getUser().getUserId();
-            if (!memberId.equals(sender.getUserId())) {
-                notificationService.notifyGroupMessage(memberId, roomId, sender.getName(), activityTitle);
-            }
+        // notify other members, in one batch
+        List<Long> recipients = room.members().keySet().stream()
+                .filter(memberId -> !memberId.equals(senderId))
+                .toList();
+        if (!recipients.isEmpty()) {
+            notificationService.notifyGroupMessage(recipients, roomId, senderName, room.activityTitle());
         }
 
         return GroupChatMessageResponse.builder()
                 .id(msg.getId())
                 .roomId(roomId)
-                .senderId(sender.getUserId())
-                .senderName(sender.getName())
+                .senderId(senderId)
+                .senderName(senderName)
                 .content(msg.getContent())
                 .systemMessage(false)
                 .timestamp(msg.getTimestamp())
@@ -199,14 +216,76 @@ public class GroupChatService {
                 .findByChatRoom_IdOrderByTimestampAsc(roomId);
 
         return list.stream()
-                .map(m -> GroupChatMessageResponse.builder()
-                        .id(m.getId())
-                        .roomId(roomId)
-                        .senderId(m.getSender() != null ? m.getSender().getUserId() : null)
-                        .senderName(m.getSender() != null ? m.getSender().getName() : "System")
-                        .content(m.getContent())
-                        .systemMessage(m.isSystemMessage())
-                        .timestamp(m.getTimestamp())
+                .map(m -> mapToResponse(m, roomId))
+                .toList();
+    }
+
+    /**
+     * One page of a room's history, newest first, with the same cursors as direct messages: no
+     * cursor for the latest messages, {@code before} to scroll back, {@code after} to catch up.
+     * Each page is a range scan of at most {@code size + 1} rows, however long the room has been
+     * active. The member's read watermark is moved up to the newest message shown.
+     */
+    @Transactional
+    public GroupChatMessagePage getMessagePage(Long roomId, Long userId, Long before, Long after, Integer requestedSize) {
+        if (before != null && after != null) {
+            throw new IllegalArgumentException("Use either before or after, not both");
+        }
+        if (!roomMembershipCache.get(roomId, userId).includes(userId)) {
+            throw new RuntimeException("User is not a member of this room");
+        }
+
+        int size = requestedSize != null && requestedSize > 0
+                ? Math.min(requestedSize, maxPageSize)
+                : defaultPageSize;
+        // One extra row tells us whether another page exists
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<GroupMessage> messages = after != null
+                ? groupMessageRepository.findPageAfter(roomId, after, limit)
+                : groupMessageRepository.findPageBefore(roomId, before != null ? before : Long.MAX_VALUE, limit);
+
+        boolean hasMore = messages.size() > size;
+        if (hasMore) {
+            messages = messages.subList(0, size);
+        }
+        if (after != null) {
+            messages = new ArrayList<>(messages);
+            Collections.reverse(messages);
+        }
+
+        if (!messages.isEmpty()) {
+            chatRoomMemberRepository.advanceReadWatermark(roomId, userId, messages.get(0).getId());
+        }
+        return GroupChatMessagePage.builder()
+                .items(messages.stream().map(m -> mapToResponse(m, roomId)).toList())
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Mark everything up to {@code messageId} as read by the member, e.g. for a message that
+     * arrived over the socket while the room was open.
+     */
+    @Transactional
+    public void markRead(Long roomId, Long userId, Long messageId) {
+        if (!roomMembershipCache.get(roomId, userId).includes(userId)) {
+            throw new RuntimeException("User is not a member of this room");
+        }
+        if (!groupMessageRepository.existsByIdAndChatRoom_Id(messageId, roomId)) {
+            throw new RuntimeException("Message not found in this room");
+        }
+        chatRoomMemberRepository.advanceReadWatermark(roomId, userId, messageId);
+    }
+
+    /**
+     * Unread message counts for every room the user belongs to, in one query. System messages
+     * and the user's own messages do not count.
+     */
+    public List<RoomUnreadCount> getUnreadCounts(Long userId) {
+        return chatRoomMemberRepository.countUnreadByRoom(userId).stream()
+                .map(row -> RoomUnreadCount.builder()
+                        .roomId(row.getRoomId())
+                        .unreadCount(row.getUnreadCount())
                         .build())
                 .toList();
     }
@@ -223,17 +302,36 @@ public class GroupChatService {
                 .toList();
     }
 
+    /**
+     * The typing event to relay to the room, or null when it falls inside the throttle window.
+     */
     public GroupTypingEvent buildTypingEvent(Long roomId, Long senderId, boolean typing) {
-        ChatRoomMember member = chatRoomMemberRepository
-                .findByChatRoom_IdAndUser_UserId(roomId, senderId)
-                .orElseThrow(() -> new RuntimeException("User is not a member of this room"));
+        RoomMembershipCache.RoomMembers room = roomMembershipCache.get(roomId, senderId);
+        if (!room.includes(senderId)) {
+            throw new RuntimeException("User is not a member of this room");
+        }
+        if (!typingThrottle.shouldRelay(roomId, senderId, typing)) {
+            return null;
+        }
 
         return GroupTypingEvent.builder()
                 .roomId(roomId)
                 .senderId(senderId)
-                .senderName(member.getUser().getName())
+                .senderName(room.nameOf(senderId))
                 .typing(typing)
                 .timestamp(System.currentTimeMillis())
                 .build();
     }
+
+    private GroupChatMessageResponse mapToResponse(GroupMessage m, Long roomId) {
+        return GroupChatMessageResponse.builder()
+                .id(m.getId())
+                .roomId(roomId)
+                .senderId(m.getSender() != null ? m.getSender().getUserId() : null)
+                .senderName(m.getSender() != null ? m.getSender().getName() : "System")
+                .content(m.getContent())
+                .systemMessage(m.isSystemMessage())
+                .timestamp(m.getTimestamp())
+                .build();
+    }
 }
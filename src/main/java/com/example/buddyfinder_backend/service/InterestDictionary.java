@@ -0,0 +1,107 @@
+package com.example.buddyfinder_backend.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Canonical dictionary of interests ("Rock Climbing", " rock  climbing" and "rock-climbing" are
+ * one interest), each interned to a small integer id.
+ *
+ * A user's interests are encoded once as a sparse bitset: only the non-empty 64-bit words are
+ * kept, as {@code [wordIndex, wordBits, wordIndex, wordBits, ...]} in ascending word order, so
+ * a rare interest with a high id costs two longs rather than a long run of empty words. Comparing
+ * two users is then a Jaccard similarity over popcounts of matching words: no string work and no
+ * allocation.
+ */
+@Component
+public class InterestDictionary {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[,;/|]+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final long[] NO_INTERESTS = new long[0];
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    /**
+     * Sparse bitset of the interests in a comma-separated interests field, interning new ones.
+     */
+    public long[] encode(String interests) {
+        if (interests == null || interests.isBlank()) {
+            return NO_INTERESTS;
+        }
+        String[] parts = SEPARATORS.split(interests);
+        int[] interestIds = new int[parts.length];
+        int count = 0;
+        for (String raw : parts) {
+            String interest = canonical(raw);
+            if (!interest.isEmpty()) {
+                interestIds[count++] = ids.computeIfAbsent(interest, key -> nextId.getAndIncrement());
+            }
+        }
+        if (count == 0) {
+            return NO_INTERESTS;
+        }
+        Arrays.sort(interestIds, 0, count);
+
+        long[] encoded = new long[count * 2];
+        int length = 0;
+        for (int i = 0; i < count; i++) {
+            long word = interestIds[i] >>> 6;
+            if (length == 0 || encoded[length - 2] != word) {
+                encoded[length] = word;
+                length += 2;
+            }
+            encoded[length - 1] |= 1L << interestIds[i];
+        }
+        return length == encoded.length ? encoded : Arrays.copyOf(encoded, length);
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * Jaccard similarity |a ∩ b| / |a ∪ b| of two encoded interest sets, 0 if either is empty.
+     */
+    public static float jaccard(long[] first, long[] second) {
+        int shared = 0;
+        int union = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] == second[j]) {
+                shared += Long.bitCount(first[i + 1] & second[j + 1]);
+                union += Long.bitCount(first[i + 1] | second[j + 1]);
+                i += 2;
+                j += 2;
+            } else if (first[i] < second[j]) {
+                union += Long.bitCount(first[i + 1]);
+                i += 2;
+            } else {
+                union += Long.bitCount(second[j + 1]);
+                j += 2;
+            }
+        }
+        if (shared == 0) {
+            return 0f;
+        }
+        for (; i < first.length; i += 2) {
+            union += Long.bitCount(first[i + 1]);
+        }
+        for (; j < second.length; j += 2) {
+            union += Long.bitCount(second[j + 1]);
+        }
+        return (float) shared / union;
+    }
+
+    static String canonical(String interest) {
+        return NON_WORD.matcher(interest.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.buddyfinder_backend.service;
+
+import com.example.buddyfinder_backend.event.UserChangedEvent;
+import com.example.buddyfinder_backend.util.LongHashSet;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Directed graph of positive swipes (LIKE and SUPER_LIKE): for each user, the set of users they
+ * have liked. {@link MatchService#likeUser} asks it whether the other user already liked back, so
+ * spotting a match needs no query.
+ *
+ * The graph is loaded once from the likes table. On shutdown it is written to a compact binary
+ * snapshot together with the highest like id at that moment, and the next start reads the
+ * snapshot and only loads the likes added since. The snapshot is deleted once read, so a run that
+ * ends without a clean shutdown cannot leave a stale one behind; the next start then rescans the
+ * table.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LikeGraph {
+
+    private static final int SNAPSHOT_MAGIC = 0x4C4B4731; // "LKG1"
+
+    private static final String POSITIVE_LIKES_AFTER =
+            "SELECT from_user_id, to_user_id FROM likes " +
+            "WHERE type IN ('LIKE', 'SUPER_LIKE') AND like_id > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${likes.graph.snapshot-path:data/like-graph.snapshot}")
+    private Path snapshotPath;
+
+    private final Map<Long, LongHashSet> liked = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        ensureLoaded();
+    }
+
+    /**
+     * Load the graph once, from the snapshot plus newer likes when there is one.
+     */
+    public void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            long started = System.nanoTime();
+            long watermark = readSnapshot();
+            long[] edges = {0};
+            jdbcTemplate.query(POSITIVE_LIKES_AFTER, rs -> {
+                addEdge(rs.getLong(1), rs.getLong(2));
+                edges[0]++;
+            }, watermark);
+            loaded = true;
+            log.info("Like graph loaded: {} users, {} likes read after like id {}, in {} ms",
+                    liked.size(), edges[0], watermark, (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    /**
+     * Whether {@code fromUserId} has liked {@code toUserId}.
+     */
+    public boolean likes(Long fromUserId, Long toUserId) {
+        ensureLoaded();
+        LongHashSet targets = liked.get(fromUserId);
+        if (targets == null) {
+            return false;
+        }
+        synchronized (targets) {
+            return targets.contains(toUserId);
+        }
+    }
+
+    /**
+     * Record a committed like; callers add it after commit, never from inside the transaction.
+     */
+    public void addLike(Long fromUserId, Long toUserId) {
+        ensureLoaded();
+        addEdge(fromUserId, toUserId);
+    }
+
+    /**
+     * A deleted user's likes are deleted with them. Likes others gave them stay in the graph but
+     * can never complete a match, since user ids are not reused.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.isDeleted()) {
+            liked.remove(event.getUserId());
+        }
+    }
+
+    @PreDestroy
+    void writeSnapshot() {
+        if (!loaded) {
+            return;
+        }
+        Long watermark = jdbcTemplate.queryForObject("SELECT coalesce(max(like_id), 0) FROM likes", Long.class);
+        try {
+            Path parent = snapshotPath.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, "like-graph", ".tmp");
+            List<Map.Entry<Long, LongHashSet>> entries = new ArrayList<>(liked.entrySet());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeLong(watermark);
+                out.writeInt(entries.size());
+                for (Map.Entry<Long, LongHashSet> entry : entries) {
+                    out.writeLong(entry.getKey());
+                    long[] targets = toArray(entry.getValue());
+                    out.writeInt(targets.length);
+                    for (long target : targets) {
+                        out.writeLong(target);
+                    }
+                }
+            }
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Like graph snapshot written: {} users, up to like id {}", entries.size(), watermark);
+        } catch (IOException e) {
+            log.warn("Could not write like graph snapshot to {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    /**
+     * Load the snapshot, if any, and return the like id it is complete up to (0 without one).
+     */
+    private long readSnapshot() {
+        if (!Files.isRegularFile(snapshotPath)) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("not a like graph snapshot");
+            }
+            long watermark = in.readLong();
+            int users = in.readInt();
+            for (int i = 0; i < users; i++) {
+                long userId = in.readLong();
+                int degree = in.readInt();
+                LongHashSet targets = new LongHashSet(degree);
+                for (int j = 0; j < degree; j++) {
+                    targets.add(in.readLong());
+                }
+                liked.put(userId, targets);
+            }
+            return watermark;
+        } catch (IOException e) {
+            log.warn("Ignoring like graph snapshot {}: {}", snapshotPath, e.getMessage());
+            liked.clear();
+            return 0;
+        } finally {
+            try {
+                Files.deleteIfExists(snapshotPath);
+            } catch (IOException e) {
+                log.warn("Could not delete like graph snapshot {}: {}", snapshotPath, e.getMessage());
+            }
+        }
+    }
+
+    private static long[] toArray(LongHashSet set) {
+        synchronized (set) {
+            long[] values = new long[set.size()];
+            int[] next = {0};
+            set.forEach(value -> values[next[0]++] = value);
+            return values;
+        }
+    }
+
+    private void addEdge(long fromUserId, long toUserId) {
+        LongHashSet targets = liked.computeIfAbsent(fromUserId, id -> new LongHashSet());
+        synchronized (targets) {
+            targets.add(toUserId);
+        }
+    }
+}
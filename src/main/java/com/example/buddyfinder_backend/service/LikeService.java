@@ -1,16 +1,20 @@
 package com.example.buddyfinder_backend.service;
 
+import com.example.buddyfinder_backend.dto.ReceivedLikesPage;
 import com.example.buddyfinder_backend.dto.UserResponse;
-import com.example.buddyfinder_backend.entity.Likes;
 import com.example.buddyfinder_backend.entity.User;
 import com.example.buddyfinder_backend.repository.LikesRepository;
 import com.example.buddyfinder_backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,8 +23,27 @@ public class LikeService {
 
     private final LikesRepository likesRepository;
     private final UserRepository userRepository;
+    private final UserResponseAssembler userResponseAssembler;
 
+    @Value("${likes.received.page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${likes.received.max-page-size:50}")
+    private int maxPageSize;
+
+    /**
+     * First page of the people who liked the user.
+     */
     public List<UserResponse> getUsersWhoLiked(Long userId) {
+        return getUsersWhoLiked(userId, null, null).getItems();
+    }
+
+    /**
+     * People who liked (or super liked) the user and have not matched with them yet, newest
+     * first. {@code cursor} is the {@code nextCursor} of the previous page (null for the first);
+     * each page costs two indexed queries plus the user lookup, however many likes there are.
+     */
+    public ReceivedLikesPage getUsersWhoLiked(Long userId, Long cursor, Integer requestedSize) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
 
@@ -28,34 +51,35 @@ public class LikeService {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Upgrade to Elite to see who liked you");
         }
 
-        return likesRepository.findByToUser_UserId(userId).stream()
-                .map(Likes::getFromUser)
-                .map(this::mapToUserResponse)
-                .collect(Collectors.toList());
-    }
+        int size = requestedSize != null && requestedSize > 0
+                ? Math.min(requestedSize, maxPageSize)
+                : defaultPageSize;
+        long before = cursor != null ? cursor : Long.MAX_VALUE;
+
+        // One extra row tells us whether another page exists
+        List<LikesRepository.ReceivedLike> likes = likesRepository.findReceivedLikes(userId, before, size + 1);
+        boolean hasMore = likes.size() > size;
+        if (hasMore) {
+            likes = likes.subList(0, size);
+        }
+
+        Map<Long, User> likers = userRepository.findAllById(
+                        likes.stream().map(LikesRepository.ReceivedLike::getFromUserId).toList())
+                .stream()
+                .collect(Collectors.toMap(User::getUserId, Function.identity()));
+        List<User> ordered = new ArrayList<>(likes.size());
+        for (LikesRepository.ReceivedLike like : likes) {
+            User liker = likers.get(like.getFromUserId());
+            if (liker != null) {
+                ordered.add(liker);
+            }
+        }
 
-    private UserResponse mapToUserResponse(User user) {
-        return UserResponse.builder()
-                .userId(user.getUserId())
-                .name(user.getName())
-                .email(user.getEmail())
-                .age(user.getAge())
-                .gender(user.getGender())
-                .interests(user.getInterests())
-                .location(user.getLocation())
-                .latitude(user.getLatitude())
-                .longitude(user.getLongitude())
-                .availability(user.getAvailability())
-                .bio(user.getBio())
-                .tier(user.getTier() != null ? user.getTier().name() : null)
-                .zodiacSign(user.getZodiacSign())
-                .mbtiType(user.getMbtiType())
-                .fitnessLevel(user.getFitnessLevel())
-                .isVerified(user.getIsVerified())
-                .isAdmin(user.getIsAdmin())
-                .isSuperAdmin(user.getIsSuperAdmin())
-                .profilePictureUrl(user.getProfilePictureUrl())
-                .incognitoMode(user.getIncognitoMode())
+        return ReceivedLikesPage.builder()
+                .items(userResponseAssembler.toResponsesWithPhotos(ordered))
+                .totalCount(likesRepository.countReceivedLikes(userId))
+                .nextCursor(hasMore ? likes.get(likes.size() - 1).getLikeId() : null)
+                .hasMore(hasMore)
                 .build();
     }
 }
@@ -0,0 +1,71 @@
+package com.example.buddyfinder_backend.service;
+
+import com.example.buddyfinder_backend.entity.Match;
+import com.example.buddyfinder_backend.event.UserChangedEvent;
+import com.example.buddyfinder_backend.repository.MatchRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The two participants of a match, with their display names, so sending a chat message does not
+ * load the match and the sender on every message. Participants never change for a match, so
+ * entries only go stale when a user is renamed or deleted. Only the most recently used matches
+ * are kept in memory.
+ */
+@Component
+@RequiredArgsConstructor
+public class MatchParticipantsCache {
+
+    private static final int MAX_CACHED_MATCHES = 50_000;
+
+    private final MatchRepository matchRepository;
+
+    private final Map<Long, Participants> byMatch = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Participants> eldest) {
+                    return size() > MAX_CACHED_MATCHES;
+                }
+            });
+
+    public Participants get(Long matchId) {
+        Participants participants = byMatch.get(matchId);
+        if (participants == null) {
+            Match match = matchRepository.findById(matchId)
+                    .orElseThrow(() -> new RuntimeException("Match not found"));
+            participants = new Participants(
+                    match.getUser1().getUserId(), match.getUser1().getName(),
+                    match.getUser2().getUserId(), match.getUser2().getName());
+            byMatch.put(matchId, participants);
+        }
+        return participants;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        long userId = event.getUserId();
+        synchronized (byMatch) {
+            byMatch.values().removeIf(participants -> participants.includes(userId));
+        }
+    }
+
+    public record Participants(long user1Id, String user1Name, long user2Id, String user2Name) {
+
+        public boolean includes(long userId) {
+            return userId == user1Id || userId == user2Id;
+        }
+
+        public long otherThan(long userId) {
+            return userId == user1Id ? user2Id : user1Id;
+        }
+
+        public String nameOf(long userId) {
+            return userId == user1Id ? user1Name : user2Name;
+        }
+    }
+}
@@ -3,112 +3,128 @@ package com.example.buddyfinder_backend.service;
 import com.example.buddyfinder_backend.dto.UserResponse;
 import com.example.buddyfinder_backend.entity.Likes;
 import com.example.buddyfinder_backend.entity.Match;
-import com.example.buddyfinder_backend.entity.Profile;
 import com.example.buddyfinder_backend.entity.User;
 import com.example.buddyfinder_backend.repository.LikesRepository;
 import com.example.buddyfinder_backend.repository.MatchRepository;
-import com.example.buddyfinder_backend.repository.ProfileRepository;
-import com.example.buddyfinder_backend.repository.RatingRepository;
 import com.example.buddyfinder_backend.repository.UserRepository;
-import com.example.buddyfinder_backend.util.PremiumAccessUtil;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class MatchService {
 
     private final LikesRepository likesRepository;
     private final MatchRepository matchRepository;
     private final UserRepository userRepository;
-    private final ProfileRepository profileRepository;
-    private final RatingRepository ratingRepository;
     private final NotificationService notificationService;
-
+    private final SwipeHistoryCache swipeHistoryCache;
+    private final UserResponseAssembler userResponseAssembler;
+    private final UserSearchIndex userSearchIndex;
+    private final PassIngestionPipeline passIngestionPipeline;
+    private final LikeGraph likeGraph;
+
+    /**
+     * Like a user and create the match if the like is mutual. Runs as one transaction of two
+     * statements: a lock on the user pair, so two people liking each other at the same moment
+     * cannot both miss the mutual like, then {@link LikesRepository#recordLike}. The database
+     * decides whether the other user already liked back; a hit in the {@link LikeGraph} only lets
+     * the statement skip that lookup, so a graph that missed a like (another node, a stale
+     * snapshot) cannot lose a match. Likes reach the graph only once their transaction has
+     * committed, so a hit is always a like the database has too.
+     */
+    @Transactional
     public String likeUser(Long fromUserId, Long toUserId) {
-        // Check if already liked
-        if (likesRepository.existsByFromUser_UserIdAndToUser_UserId(fromUserId, toUserId)) {
+        // Covers passes still waiting in the ingestion queue, which the database has not seen yet
+        if (swipeHistoryCache.hasSwiped(fromUserId, toUserId)) {
             return "Already liked this user";
         }
+        long user1Id = Math.min(fromUserId, toUserId);
+        long user2Id = Math.max(fromUserId, toUserId);
+        likesRepository.lockSwipePair(user1Id << 32 ^ user2Id);
+
+        boolean mutual = likeGraph.likes(toUserId, fromUserId);
+        LikesRepository.LikeOutcome outcome = likesRepository.recordLike(
+                fromUserId, toUserId, Likes.LikeType.LIKE.name(), mutual,
+                user1Id, user2Id, calculateCompatibility(fromUserId, toUserId));
+        if (outcome.getToUserName() == null) {
+            throw new RuntimeException("Target user not found");
+        }
+        if (!Boolean.TRUE.equals(outcome.getInserted())) {
+            return "Already liked this user";
+        }
+        boolean matched = outcome.getMatchId() != null;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                likeGraph.addLike(fromUserId, toUserId);
+                if (matched && !mutual) {
+                    // The reverse like was recorded where this graph could not see it
+                    likeGraph.addLike(toUserId, fromUserId);
+                }
+            }
+        });
+        swipeHistoryCache.recordSwipe(fromUserId, toUserId);
 
-        User fromUser = userRepository.findById(fromUserId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        User toUser = userRepository.findById(toUserId)
-                .orElseThrow(() -> new RuntimeException("Target user not found"));
-
-        // Create like
-        Likes like = Likes.builder()
-                .fromUser(fromUser)
-                .toUser(toUser)
-                .type(Likes.LikeType.LIKE)
-                .build();
-
-        likesRepository.save(like);
-
-        // Check if mutual like (match)
-        Optional<Likes> mutualLike = likesRepository.findByFromUser_UserIdAndToUser_UserId(toUserId, fromUserId);
-
-        if (mutualLike.isPresent()) {
-            // Create match
-            Match match = createMatch(fromUser, toUser);
+        if (matched) {
             notificationService.notifyMatch(
                     fromUserId,
-                    match.getMatchId(),
-                    toUser.getName());
+                    outcome.getMatchId(),
+                    outcome.getToUserName());
             notificationService.notifyMatch(
                     toUserId,
-                    match.getMatchId(),
-                    fromUser.getName()
+                    outcome.getMatchId(),
+                    outcome.getFromUserName()
             );
-            System.out.println("Match created with ID: " + match.getMatchId());
+            log.info("Match created with ID: {}", outcome.getMatchId());
             return "It's a match!";
         }
 
         return "Like sent!";
     }
 
+    /**
+     * Pass on a user. Acknowledged as soon as the pass is in the swipe history; the row itself is
+     * written in a batch by {@link PassIngestionPipeline}.
+     */
     public String passUser(Long fromUserId, Long toUserId) {
-        User fromUser = userRepository.findById(fromUserId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        User toUser = userRepository.findById(toUserId)
-                .orElseThrow(() -> new RuntimeException("Target user not found"));
-
-        Likes pass = Likes.builder()
-                .fromUser(fromUser)
-                .toUser(toUser)
-                .type(Likes.LikeType.PASS)
-                .build();
-
-        likesRepository.save(pass);
+        if (!userSearchIndex.contains(toUserId)) {
+            throw new RuntimeException("Target user not found");
+        }
+        passIngestionPipeline.submit(fromUserId, toUserId);
         return "Passed";
     }
 
     public List<UserResponse> getMatches(Long userId) {
         List<Match> matches = matchRepository.findActiveMatchesByUserId(userId);
 
-        List<UserResponse> matchedUsers = new ArrayList<>();
+        List<User> matchedUsers = new ArrayList<>();
 
         for (Match match : matches) {
-            User matchedUser = match.getUser1().getUserId().equals(userId)
-                    ? match.getUser2()
-                    : match.getUser1();
-
-            matchedUsers.add(mapToUserResponseWithPhotos(matchedUser)); // CHANGED
+            matchedUsers.add(otherUser(match, userId));
         }
 
-        return matchedUsers;
+        return userResponseAssembler.toResponsesWithPhotos(matchedUsers);
     }
 
     public List<Map<String, Object>> getMatchesWithDetails(Long userId) {
         List<Match> matches = matchRepository.findActiveMatchesByUserId(userId);
+        List<UserResponse> responses = userResponseAssembler.toResponsesWithPhotos(
+                matches.stream().map(match -> otherUser(match, userId)).collect(Collectors.toList()));
 
-        return matches.stream().map(match -> {
-            User matchedUser = match.getUser1().getUserId().equals(userId)
-                    ? match.getUser2()
-                    : match.getUser1();
+        List<Map<String, Object>> result = new ArrayList<>(matches.size());
+        for (int i = 0; i < matches.size(); i++) {
+            Match match = matches.get(i);
+            User matchedUser = otherUser(match, userId);
+            UserResponse response = responses.get(i);
 
             Map<String, Object> matchDetails = new HashMap<>();
             matchDetails.put("matchId", match.getMatchId());
@@ -123,98 +139,29 @@ public class MatchService {
             matchDetails.put("fitnessLevel", matchedUser.getFitnessLevel());
             matchDetails.put("matchedAt", match.getMatchedAt());
             matchDetails.put("profilePictureUrl", matchedUser.getProfilePictureUrl());
-            Double avgRating = ratingRepository.getAverageRating(matchedUser.getUserId());
-            Long totalRatings = ratingRepository.countByToUser_UserId(matchedUser.getUserId());
-            matchDetails.put("averageRating", avgRating != null ? Math.round(avgRating * 10.0) / 10.0 : null);
-            matchDetails.put("totalRatings", totalRatings != null ? totalRatings : 0L);
+            matchDetails.put("averageRating", response.getAverageRating());
+            matchDetails.put("totalRatings", response.getTotalRatings());
 
             // ADD PHOTOS
-            Optional<Profile> profile = profileRepository.findByUser_UserId(matchedUser.getUserId());
-            profile.ifPresent(p -> matchDetails.put("photos", p.getPhotos()));
-
-            return matchDetails;
-        }).collect(Collectors.toList());
-    }
-
-    private Match createMatch(User user1, User user2) {
-        // Check if match already exists
-        Optional<Match> existingMatch = matchRepository.findMatchBetweenUsers(user1.getUserId(), user2.getUserId());
-
-        if (existingMatch.isPresent()) {
-            return existingMatch.get();
-        }
-
-        Match match = Match.builder()
-                .user1(user1)
-                .user2(user2)
-                .status(Match.MatchStatus.ACTIVE)
-                .compatibilityScore(calculateCompatibility(user1, user2))
-                .build();
-
-        return matchRepository.save(match);
-    }
-
-    private Float calculateCompatibility(User user1, User user2) {
-        // Simple compatibility score based on common interests
-        if (user1.getInterests() == null || user2.getInterests() == null) {
-            return 50f;
-        }
-
-        String[] interests1 = user1.getInterests().toLowerCase().split(",");
-        String[] interests2 = user2.getInterests().toLowerCase().split(",");
-
-        int commonInterests = 0;
-        for (String interest1 : interests1) {
-            for (String interest2 : interests2) {
-                if (interest1.trim().equals(interest2.trim())) {
-                    commonInterests++;
-                }
+            if (response.getPhotos() != null) {
+                matchDetails.put("photos", response.getPhotos());
             }
-        }
 
-        float score = (float) commonInterests / Math.max(interests1.length, interests2.length) * 100;
-        return Math.min(score, 100f);
+            result.add(matchDetails);
+        }
+        return result;
     }
 
-    // Includes photos
-    private UserResponse mapToUserResponseWithPhotos(User user) {
-        UserResponse.UserResponseBuilder builder = UserResponse.builder()
-                .userId(user.getUserId())
-                .name(user.getName())
-                .email(user.getEmail())
-                .age(user.getAge())
-                .gender(user.getGender())
-                .interests(user.getInterests())
-                .location(user.getLocation())
-                .latitude(user.getLatitude())
-                .longitude(user.getLongitude())
-                .availability(user.getAvailability())
-                .bio(user.getBio())
-                .tier(user.getTier() != null ? user.getTier().name() : null)
-                .fitnessLevel(user.getFitnessLevel())
-                .isVerified(user.getIsVerified())
-                .isAdmin(user.getIsAdmin())
-                .isSuperAdmin(user.getIsSuperAdmin())
-                .profilePictureUrl(user.getProfilePictureUrl())
-                .incognitoMode(user.getIncognitoMode());
-
-        PremiumAccessUtil.applyPremiumTraits(user, builder);
-
-        // Add photos from profile
-        Optional<Profile> profile = profileRepository.findByUser_UserId(user.getUserId());
-        profile.ifPresent(p -> builder.photos(p.getPhotos()));
-
-        Double avgRating = ratingRepository.getAverageRating(user.getUserId());
-        double roundedAvg = avgRating != null ? Math.round(avgRating * 10.0) / 10.0 : 0.0;
-        long totalRatings = ratingRepository.countByToUser_UserId(user.getUserId());
-        builder.averageRating(avgRating != null ? roundedAvg : null);
-        builder.totalRatings(totalRatings);
-
-        return builder.build();
+    private User otherUser(Match match, Long userId) {
+        return match.getUser1().getUserId().equals(userId) ? match.getUser2() : match.getUser1();
     }
 
-    // Keep old method for backward compatibility
-    private UserResponse mapToUserResponse(User user) {
-        return mapToUserResponseWithPhotos(user);
+    /**
+     * Interest overlap as a 0-100 Jaccard score, computed from the interest bitsets the search
+     * index already holds. Users without interests get the neutral 50.
+     */
+    private Float calculateCompatibility(Long userId, Long otherUserId) {
+        float similarity = userSearchIndex.interestSimilarity(userId, otherUserId);
+        return Float.isNaN(similarity) ? 50f : similarity * 100f;
     }
 }
@@ -1,17 +1,26 @@
 package com.example.buddyfinder_backend.service;
 
 import com.example.buddyfinder_backend.dto.ChatMessage;
+import com.example.buddyfinder_backend.dto.ChatMessagePage;
+import com.example.buddyfinder_backend.dto.ChatReadEvent;
+import com.example.buddyfinder_backend.dto.InboxEntry;
 import com.example.buddyfinder_backend.entity.Match;
 import com.example.buddyfinder_backend.entity.Message;
-import com.example.buddyfinder_backend.entity.User;
 import com.example.buddyfinder_backend.repository.MatchRepository;
 import com.example.buddyfinder_backend.repository.MessageRepository;
-import com.example.buddyfinder_backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -20,56 +29,47 @@ import java.util.stream.Collectors;
 @Slf4j
 public class MessageService {
 
+    private static final int PREVIEW_LENGTH = 120;
+
+    // One row per active match: peer, newest message (LATERAL, newest id on the
+    // (match_id, message_id) index) and the unread range count above the reader's watermark
+    private static final String INBOX =
+            "SELECT m.match_id, m.matched_at, peer.user_id AS peer_id, peer.name AS peer_name, " +
+            "peer.profile_picture_url AS peer_picture, latest.message_id, latest.sender_id, " +
+            "left(latest.content, " + PREVIEW_LENGTH + ") AS preview, latest.media_type, latest.\"timestamp\" AS sent_at, " +
+            "(SELECT count(*) FROM messages u WHERE u.match_id = m.match_id AND u.sender_id <> ? " +
+            "  AND u.message_id > coalesce(CASE WHEN m.user1_id = ? " +
+            "    THEN m.user1_last_read_message_id ELSE m.user2_last_read_message_id END, 0)) AS unread " +
+            "FROM matches m " +
+            "JOIN users peer ON peer.user_id = CASE WHEN m.user1_id = ? THEN m.user2_id ELSE m.user1_id END " +
+            "LEFT JOIN LATERAL (" +
+            "  SELECT message_id, sender_id, content, media_type, \"timestamp\" FROM messages " +
+            "  WHERE match_id = m.match_id ORDER BY message_id DESC LIMIT 1) latest ON true " +
+            "WHERE (m.user1_id = ? OR m.user2_id = ?) AND m.status = 'ACTIVE' " +
+            "ORDER BY coalesce(latest.\"timestamp\", m.matched_at) DESC, m.match_id DESC";
+
     private final MessageRepository messageRepository;
     private final MatchRepository matchRepository;
-    private final UserRepository userRepository;
-    private final NotificationService notificationService;
+    private final ChatMessagePipeline chatMessagePipeline;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${chat.history.page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${chat.history.max-page-size:100}")
+    private int maxPageSize;
 
+    /**
+     * Send a message. It is acknowledged once journaled by {@link ChatMessagePipeline}, with a
+     * client message id; the pipeline writes it to the database shortly after, publishes its
+     * message id and notifies the recipient.
+     */
     public ChatMessage sendMessage(Long matchId, Long senderId, String content) {
-        try {
-            Match match = matchRepository.findById(matchId)
-                    .orElseThrow(() -> new RuntimeException("Match not found"));
-
-            User sender = userRepository.findById(senderId)
-                    .orElseThrow(() -> new RuntimeException("Sender not found"));
-
-            // Determine receiver
-            User receiver = match.getUser1().getUserId().equals(senderId)
-                    ? match.getUser2()
-                    : match.getUser1();
-
-            // Save message
-            Message message = Message.builder()
-                    .match(match)
-                    .sender(sender)
-                    .content(content)
-                    .isRead(false)
-                    .isDeleted(false)
-                    .build();
-
-            Message savedMessage = messageRepository.save(message);
-
-            try {
-                notificationService.notifyNewMessage(
-                        receiver.getUserId(),
-                        matchId,
-                        sender.getName()
-                );
-                log.info("Notification sent");
-            } catch (Exception e) {
-                log.error("Failed to send notification (non-critical): {}", e.getMessage());
-            }
-
-            ChatMessage chatMessage = mapToChatMessage(savedMessage);
-
-            return chatMessage;
-
-        } catch (Exception e) {
-            log.error("Error in MessageService.sendMessage:", e);
-            throw e;
-        }
+        return chatMessagePipeline.submit(matchId, senderId, content);
     }
 
+    @Transactional
     public List<ChatMessage> getMessagesByMatch(Long matchId, Long userId) {
         Match match = matchRepository.findById(matchId)
                 .orElseThrow(() -> new RuntimeException("Match not found"));
@@ -80,33 +80,141 @@ public class MessageService {
             throw new RuntimeException("Unauthorized to view messages");
         }
 
-        List<Message> messages = messageRepository.findByMatch_MatchIdOrderByTimestampAsc(matchId);
+        // Id order, like the paged history: timestamps are taken before the insert and can disagree
+        List<Message> messages = messageRepository.findByMatch_MatchIdOrderByMessageIdAsc(matchId);
         log.info("Retrieved {} messages for match {}", messages.size(), matchId);
 
-        // Mark messages as read for this user
-        messages.stream()
-                .filter(msg -> !msg.getSender().getUserId().equals(userId))
-                .filter(msg -> !msg.getIsRead())
-                .forEach(msg -> {
-                    msg.setIsRead(true);
-                    msg.setReadAt(LocalDateTime.now());
-                    messageRepository.save(msg);
-                });
-
+        ReadWatermarks read = ReadWatermarks.of(match);
+        if (!messages.isEmpty()) {
+            long newest = messages.stream().mapToLong(Message::getMessageId).max().getAsLong();
+            read = read.afterReading(userId, markRead(match, userId, newest));
+        }
+        ReadWatermarks watermarks = read;
         return messages.stream()
-                .map(this::mapToChatMessage)
+                .map(message -> mapToChatMessage(message, watermarks.isRead(message)))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * One page of a conversation, newest first. With no cursor this is the latest messages; with
+     * {@code before} the messages older than that id (scrolling back); with {@code after} the
+     * oldest messages newer than that id (catching up). Each page is a range scan of at most
+     * {@code size + 1} rows, whatever the length of the conversation. The reader's watermark is
+     * moved up to the newest message shown.
+     */
+    @Transactional
+    public ChatMessagePage getMessagePage(Long matchId, Long userId, Long before, Long after, Integer requestedSize) {
+        if (before != null && after != null) {
+            throw new IllegalArgumentException("Use either before or after, not both");
+        }
+        Match match = matchRepository.findById(matchId)
+                .orElseThrow(() -> new RuntimeException("Match not found"));
+
+        if (!match.getUser1().getUserId().equals(userId) &&
+                !match.getUser2().getUserId().equals(userId)) {
+            throw new RuntimeException("Unauthorized to view messages");
+        }
+
+        int size = requestedSize != null && requestedSize > 0
+                ? Math.min(requestedSize, maxPageSize)
+                : defaultPageSize;
+        // One extra row tells us whether another page exists
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Message> messages = after != null
+                ? messageRepository.findPageAfter(matchId, after, limit)
+                : messageRepository.findPageBefore(matchId, before != null ? before : Long.MAX_VALUE, limit);
+
+        boolean hasMore = messages.size() > size;
+        if (hasMore) {
+            messages = messages.subList(0, size);
+        }
+        if (after != null) {
+            messages = new ArrayList<>(messages);
+            Collections.reverse(messages);
+        }
+
+        ReadWatermarks read = ReadWatermarks.of(match);
+        if (!messages.isEmpty()) {
+            read = read.afterReading(userId, markRead(match, userId, messages.get(0).getMessageId()));
+        }
+        ReadWatermarks watermarks = read;
+        List<ChatMessage> items = messages.stream()
+                .map(message -> mapToChatMessage(message, watermarks.isRead(message)))
+                .collect(Collectors.toList());
+        return ChatMessagePage.builder()
+                .items(items)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Mark everything up to {@code messageId} as read by the user, e.g. for a message that arrived
+     * over the socket while the chat was open.
+     */
+    @Transactional
+    public void markRead(Long matchId, Long userId, Long messageId) {
+        Match match = matchRepository.findById(matchId)
+                .orElseThrow(() -> new RuntimeException("Match not found"));
+
+        if (!match.getUser1().getUserId().equals(userId) &&
+                !match.getUser2().getUserId().equals(userId)) {
+            throw new RuntimeException("Unauthorized to view messages");
+        }
+        if (!messageRepository.existsByMessageIdAndMatch_MatchId(messageId, matchId)) {
+            throw new IllegalArgumentException("Message not found in this match");
+        }
+        markRead(match, userId, messageId);
+    }
+
+    /**
+     * The user's conversation list, most recent activity first: for each active match the peer,
+     * a preview of the last message and the unread count, all from one query.
+     */
+    public List<InboxEntry> getInbox(Long userId) {
+        return jdbcTemplate.query(INBOX, (rs, rowNum) -> InboxEntry.builder()
+                .matchId(rs.getLong("match_id"))
+                .matchedAt(rs.getObject("matched_at", LocalDateTime.class))
+                .peerId(rs.getLong("peer_id"))
+                .peerName(rs.getString("peer_name"))
+                .peerProfilePictureUrl(rs.getString("peer_picture"))
+                .lastMessageId(rs.getObject("message_id", Long.class))
+                .lastMessageSenderId(rs.getObject("sender_id", Long.class))
+                .lastMessagePreview(rs.getString("preview"))
+                .lastMessageMediaType(rs.getString("media_type"))
+                .lastMessageAt(rs.getObject("sent_at", LocalDateTime.class))
+                .unreadCount(rs.getInt("unread"))
+                .build(), userId, userId, userId, userId, userId);
+    }
+
     public Integer getUnreadCount(Long matchId, Long userId) {
-        return messageRepository.countByMatch_MatchIdAndIsReadFalseAndSender_UserIdNot(matchId, userId);
+        return messageRepository.countUnread(matchId, userId);
+    }
+
+    /**
+     * Move the reader's watermark to {@code messageId} with one conditional UPDATE and, if it
+     * moved, tell the other participant over {@code /topic/match/{matchId}/read}. Returns the
+     * reader's watermark afterwards.
+     */
+    private long markRead(Match match, Long userId, long messageId) {
+        if (matchRepository.advanceReadWatermark(match.getMatchId(), userId, messageId) == 0) {
+            return ReadWatermarks.of(match).watermarkOf(userId);
+        }
+        ChatReadEvent event = ChatReadEvent.builder()
+                .matchId(match.getMatchId())
+                .readerId(userId)
+                .lastReadMessageId(messageId)
+                .timestamp(System.currentTimeMillis())
+                .build();
+        messagingTemplate.convertAndSend("/topic/match/" + match.getMatchId() + "/read", event);
+        return messageId;
     }
 
-    private ChatMessage mapToChatMessage(Message message) {
+    private ChatMessage mapToChatMessage(Message message, boolean isRead) {
         log.debug("Mapping Message ID {} to ChatMessage", message.getMessageId());
 
         ChatMessage chatMessage = ChatMessage.builder()
                 .messageId(message.getMessageId())
+                .clientMessageId(message.getClientMessageId())
                 .matchId(message.getMatch().getMatchId())
                 .senderId(message.getSender().getUserId())
                 .senderName(message.getSender().getName())
@@ -114,10 +222,41 @@ public class MessageService {
                 .mediaUrl(message.getMediaUrl())
                 .mediaType(message.getMediaType())
                 .timestamp(message.getTimestamp())
-                .isRead(message.getIsRead())
+                .isRead(isRead)
                 .build();
 
         log.debug("Mapped to ChatMessage: {}", chatMessage);
         return chatMessage;
     }
+
+    /**
+     * Highest message id each participant has read. A message counts as read once the
+     * participant who did not send it has read up to it.
+     */
+    private record ReadWatermarks(Long user1Id, long user1, long user2) {
+
+        static ReadWatermarks of(Match match) {
+            return new ReadWatermarks(match.getUser1().getUserId(),
+                    orZero(match.getUser1LastReadMessageId()), orZero(match.getUser2LastReadMessageId()));
+        }
+
+        long watermarkOf(Long userId) {
+            return user1Id.equals(userId) ? user1 : user2;
+        }
+
+        ReadWatermarks afterReading(Long userId, long watermark) {
+            return user1Id.equals(userId)
+                    ? new ReadWatermarks(user1Id, watermark, user2)
+                    : new ReadWatermarks(user1Id, user1, watermark);
+        }
+
+        boolean isRead(Message message) {
+            long recipientWatermark = user1Id.equals(message.getSender().getUserId()) ? user2 : user1;
+            return message.getMessageId() <= recipientWatermark;
+        }
+
+        private static long orZero(Long messageId) {
+            return messageId != null ? messageId : 0L;
+        }
+    }
 }
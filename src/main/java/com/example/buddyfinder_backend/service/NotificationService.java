@@ -7,13 +7,27 @@ import com.example.buddyfinder_backend.repository.NotificationRepository;
 import com.example.buddyfinder_backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,6 +38,41 @@ public class NotificationService {
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
     private final SimpMessagingTemplate messagingTemplate;
+    private final ConversationSubscriptionRegistry conversationSubscriptionRegistry;
+    private final PresenceService presenceService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ThreadPoolTaskExecutor notificationPushExecutor;
+
+    private static final String NOTIFICATION_COLUMNS =
+            "noti_id, user_id, title, message, related_id, related_type, is_read, created_at, collapse_count, updated_at";
+
+    // Two-key advisory locks live apart from the single-key swipe pair locks; this is the first key
+    private static final int GROUP_NOTIFICATION_LOCK = 2;
+    private static final int MATCH_NOTIFICATION_LOCK = 3;
+
+    // Held until commit, so concurrent messages in one conversation collapse into the same rows
+    private static final String LOCK_CONVERSATION_NOTIFICATIONS =
+            "SELECT 1 FROM (SELECT pg_advisory_xact_lock(?, CAST(? & 2147483647 AS integer))) AS conversation_lock";
+
+    // Bump the newest unread notification of each recipient for this conversation
+    private static final String COLLAPSE_UNREAD =
+            "UPDATE notifications n " +
+            "SET collapse_count = coalesce(n.collapse_count, 1) + 1, " +
+            "    message = CAST(coalesce(n.collapse_count, 1) + 1 AS text) || ?, " +
+            "    updated_at = now() " +
+            "WHERE n.noti_id IN (" +
+            "    SELECT max(noti_id) FROM notifications " +
+            "    WHERE user_id = ANY(?) AND type = 'MESSAGE' AND related_type = ? AND related_id = ? " +
+            "      AND is_read = false " +
+            "    GROUP BY user_id) " +
+            "RETURNING " + NOTIFICATION_COLUMNS;
+
+    // One new notification per remaining recipient; users deleted in the meantime are skipped
+    private static final String INSERT_FOR_USERS =
+            "INSERT INTO notifications (user_id, type, title, message, related_id, related_type, is_read, " +
+            "    created_at, collapse_count, updated_at) " +
+            "SELECT user_id, 'MESSAGE', ?, ?, ?, ?, false, now(), 1, now() FROM users WHERE user_id = ANY(?) " +
+            "RETURNING " + NOTIFICATION_COLUMNS;
 
     /**
      * Tạo và gửi notification (với WebSocket real-time)
@@ -64,6 +113,11 @@ public class NotificationService {
      * Gửi notification real-time qua WebSocket
      */
     private void sendRealTimeNotification(Long userId, NotificationResponse notification) {
+        if (presenceService.isKnownOffline(userId)) {
+            // Nobody to deliver to; the notification is still stored
+            log.debug("Skipped real-time notification to offline user {}", userId);
+            return;
+        }
         try {
             String destination = "/topic/notifications/" + userId;
             messagingTemplate.convertAndSend(destination, notification);
@@ -90,26 +144,115 @@ public class NotificationService {
     /**
      * Helper method: Tạo MESSAGE notification
      */
+    @Transactional
     public void notifyNewMessage(Long userId, Long matchId, String senderName) {
-        createNotification(
+        notifyMessage(
                 userId,
-                Notification.NotificationType.MESSAGE,
                 "New Message",
                 senderName + " sent you a message",
+                // Concatenated, never a format template: names are user input and may contain '%'
+                count -> senderName + " sent you " + count + " messages",
                 matchId,
                 "MATCH"
         );
     }
 
+    @Transactional
     public void notifyGroupMessage(Long userId, Long roomId, String senderName, String activityTitle) {
-        createNotification(
-                userId,
-                Notification.NotificationType.MESSAGE,
-                "Group Chat",
-                senderName + " sent a message in " + (activityTitle != null ? activityTitle : "a group chat"),
-                roomId,
-                "GROUP"
-        );
+        notifyGroupMessage(List.of(userId), roomId, senderName, activityTitle);
+    }
+
+    /**
+     * Group message notifications for every recipient at once, with the same collapsing as
+     * {@link #notifyMessage}: one UPDATE for recipients who already have an unread notification for
+     * the room, one multi-row INSERT for the rest, whatever the number of recipients. The pushes
+     * go out on {@code notificationPushExecutor} after the transaction commits.
+     *
+     * The UPDATE and INSERT are two statements, so the room is locked first: otherwise two
+     * concurrent messages could both find no unread notification and both insert one.
+     */
+    @Transactional
+    public void notifyGroupMessage(Collection<Long> userIds, Long roomId, String senderName, String activityTitle) {
+        String room = activityTitle != null ? activityTitle : "a group chat";
+        List<Long> recipients = userIds.stream()
+                .filter(userId -> !conversationSubscriptionRegistry.isViewing(userId, "GROUP", roomId))
+                .toList();
+        if (recipients.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.queryForObject(LOCK_CONVERSATION_NOTIFICATIONS, Integer.class, GROUP_NOTIFICATION_LOCK, roomId);
+        List<NotificationResponse> notified = new ArrayList<>(recipients.size());
+        notified.addAll(jdbcTemplate.query(con -> {
+            PreparedStatement statement = con.prepareStatement(COLLAPSE_UNREAD);
+            statement.setString(1, " new messages in " + room);
+            statement.setArray(2, userIdArray(con, recipients));
+            statement.setString(3, "GROUP");
+            statement.setLong(4, roomId);
+            return statement;
+        }, this::mapMessageRow));
+
+        Set<Long> collapsed = new HashSet<>();
+        notified.forEach(notification -> collapsed.add(notification.getUserId()));
+        List<Long> fresh = recipients.stream().filter(userId -> !collapsed.contains(userId)).toList();
+        if (!fresh.isEmpty()) {
+            notified.addAll(jdbcTemplate.query(con -> {
+                PreparedStatement statement = con.prepareStatement(INSERT_FOR_USERS);
+                statement.setString(1, "Group Chat");
+                statement.setString(2, senderName + " sent a message in " + room);
+                statement.setLong(3, roomId);
+                statement.setString(4, "GROUP");
+                statement.setArray(5, userIdArray(con, fresh));
+                return statement;
+            }, this::mapMessageRow));
+        }
+
+        pushAfterCommit(notified);
+    }
+
+    /**
+     * MESSAGE notifications collapse per conversation: while the recipient has an unread one for
+     * it, that row's counter and timestamp are bumped instead of inserting another, and the
+     * updated notification is pushed again under the same id. Nothing is recorded while the
+     * recipient has the conversation open.
+     *
+     * The lookup and the save are separate statements, so the conversation is locked first, on
+     * every node, just as {@link #notifyGroupMessage(Collection, Long, String, String)} locks the
+     * room. The key is the match rather than (recipient, match): a match has two people, and the
+     * advisory lock only takes two integer keys.
+     */
+    private void notifyMessage(Long userId, String title, String message, IntFunction<String> collapsedMessage,
+                              Long relatedId, String relatedType) {
+        if (conversationSubscriptionRegistry.isViewing(userId, relatedType, relatedId)) {
+            return;
+        }
+        jdbcTemplate.queryForObject(LOCK_CONVERSATION_NOTIFICATIONS, Integer.class, MATCH_NOTIFICATION_LOCK, relatedId);
+        Optional<Notification> unread = notificationRepository
+                .findFirstByUser_UserIdAndTypeAndRelatedTypeAndRelatedIdAndIsReadFalseOrderByNotiIdDesc(
+                        userId, Notification.NotificationType.MESSAGE, relatedType, relatedId);
+
+        Notification notification;
+        if (unread.isPresent()) {
+            notification = unread.get();
+            int count = (notification.getCollapseCount() != null ? notification.getCollapseCount() : 1) + 1;
+            notification.setCollapseCount(count);
+            notification.setMessage(collapsedMessage.apply(count));
+            notification.setUpdatedAt(LocalDateTime.now());
+        } else {
+            notification = Notification.builder()
+                    .user(userRepository.getReferenceById(userId))
+                    .type(Notification.NotificationType.MESSAGE)
+                    .title(title)
+                    .message(message)
+                    .relatedId(relatedId)
+                    .relatedType(relatedType)
+                    .isRead(false)
+                    .collapseCount(1)
+                    .updatedAt(LocalDateTime.now())
+                    .build();
+        }
+        Notification saved = notificationRepository.save(notification);
+        sendRealTimeNotification(userId, mapToResponse(saved));
     }
 
     /**
@@ -235,6 +378,43 @@ public class NotificationService {
         log.info("Cleaned up notifications older than {} days", daysOld);
     }
 
+    private void pushAfterCommit(List<NotificationResponse> notifications) {
+        Runnable push = () -> notificationPushExecutor.execute(() ->
+                notifications.forEach(notification -> sendRealTimeNotification(notification.getUserId(), notification)));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            push.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                push.run();
+            }
+        });
+    }
+
+    private static Array userIdArray(Connection con, Collection<Long> userIds) throws SQLException {
+        return con.createArrayOf("bigint", userIds.toArray());
+    }
+
+    private NotificationResponse mapMessageRow(ResultSet rs, int rowNum) throws SQLException {
+        LocalDateTime createdAt = rs.getObject("created_at", LocalDateTime.class);
+        LocalDateTime updatedAt = rs.getObject("updated_at", LocalDateTime.class);
+        return NotificationResponse.builder()
+                .notiId(rs.getLong("noti_id"))
+                .userId(rs.getLong("user_id"))
+                .type(Notification.NotificationType.MESSAGE.name())
+                .title(rs.getString("title"))
+                .message(rs.getString("message"))
+                .relatedId(rs.getLong("related_id"))
+                .relatedType(rs.getString("related_type"))
+                .isRead(rs.getBoolean("is_read"))
+                .createdAt(createdAt)
+                .collapseCount(rs.getInt("collapse_count"))
+                .updatedAt(updatedAt != null ? updatedAt : createdAt)
+                .build();
+    }
+
     /**
      * Map entity to DTO
      */
@@ -249,6 +429,8 @@ public class NotificationService {
                 .relatedType(notification.getRelatedType())
                 .isRead(notification.getIsRead())
                 .createdAt(notification.getCreatedAt())
+                .collapseCount(notification.getCollapseCount() != null ? notification.getCollapseCount() : 1)
+                .updatedAt(notification.getUpdatedAt() != null ? notification.getUpdatedAt() : notification.getCreatedAt())
                 .build();
     }
 }
@@ -0,0 +1,238 @@
+package com.example.buddyfinder_backend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind ingestion of PASS swipes.
+ *
+ * A pass is recorded in {@link SwipeHistoryCache} straight away, so search and discovery decks
+ * stop showing the user immediately, and then queued. A single writer thread drains the queue and
+ * writes passes with JDBC batch inserts, whenever {@code swipes.pass.batch-size} passes are waiting
+ * or the oldest has waited {@code swipes.pass.max-delay-ms}. A pass already waiting in the queue is
+ * not queued twice. When the queue is full, the pass is written synchronously on the caller's
+ * thread instead.
+ *
+ * A queued pass has already been acknowledged, so it is only given up when the database rejects
+ * it (a user deleted in the meantime); while the database is unreachable the writer keeps the
+ * batch and retries. Shutdown is never by interrupt, which could cut a JDBC batch short: the
+ * writer sees the running flag clear, writes what is left in the queue and exits, and
+ * {@link #stop} waits for it up to {@code swipes.pass.shutdown-timeout-ms}. Passes given up are
+ * logged and counted as {@code dropped}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PassIngestionPipeline {
+
+    private static final String INSERT_PASS =
+            "INSERT INTO likes (from_user_id, to_user_id, type, created_at) VALUES (?, ?, 'PASS', now()) " +
+            "ON CONFLICT (from_user_id, to_user_id) DO NOTHING";
+
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SwipeHistoryCache swipeHistoryCache;
+
+    @Value("${swipes.pass.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${swipes.pass.batch-size:500}")
+    private int batchSize;
+
+    @Value("${swipes.pass.max-delay-ms:200}")
+    private long maxDelayMillis;
+
+    @Value("${swipes.pass.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMillis;
+
+    private BlockingQueue<Pass> queue;
+    private final Set<Pass> queued = ConcurrentHashMap.newKeySet();
+    private Thread writer;
+    private volatile boolean running;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong writtenSynchronously = new AtomicLong();
+    private final AtomicLong flushed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private volatile long lastFlushNanos;
+    private volatile long maxFlushNanos;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = new Thread(this::drainLoop, "pass-ingestion");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Record a pass. Returns as soon as the pass is in the swipe history and queued.
+     */
+    public void submit(Long fromUserId, Long toUserId) {
+        swipeHistoryCache.recordSwipe(fromUserId, toUserId);
+        accepted.incrementAndGet();
+
+        Pass pass = new Pass(fromUserId, toUserId);
+        if (!queued.add(pass)) {
+            coalesced.incrementAndGet();
+            return;
+        }
+        if (!running || !queue.offer(pass)) {
+            // Backpressure: write on the caller's thread rather than drop the swipe
+            queued.remove(pass);
+            writtenSynchronously.incrementAndGet();
+            jdbcTemplate.update(INSERT_PASS, fromUserId, toUserId);
+        }
+    }
+
+    public Map<String, Object> metrics() {
+        long flushCount = flushes.get();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("queueDepth", queue.size());
+        metrics.put("queueCapacity", queueCapacity);
+        metrics.put("accepted", accepted.get());
+        metrics.put("coalesced", coalesced.get());
+        metrics.put("writtenSynchronously", writtenSynchronously.get());
+        metrics.put("flushed", flushed.get());
+        metrics.put("dropped", dropped.get());
+        metrics.put("flushes", flushCount);
+        metrics.put("lastFlushMs", lastFlushNanos / 1_000_000.0);
+        metrics.put("maxFlushMs", maxFlushNanos / 1_000_000.0);
+        metrics.put("avgFlushMs", flushCount > 0 ? totalFlushNanos.get() / 1_000_000.0 / flushCount : 0.0);
+        return metrics;
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.join(shutdownTimeoutMillis);
+        if (writer.isAlive()) {
+            // Still inside a flush or waiting for the database; leave it be rather than interrupt it
+            log.error("Pass writer did not finish within {} ms, {} queued passes may be lost",
+                    shutdownTimeoutMillis, queue.size());
+            return;
+        }
+        // Passes queued by callers that saw the flag just before it was cleared
+        List<Pass> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty() && !flush(remaining)) {
+            drop(remaining, "database unavailable at shutdown");
+        }
+    }
+
+    private void drainLoop() {
+        List<Pass> batch = new ArrayList<>(batchSize);
+        while (running || !batch.isEmpty() || !queue.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    Pass first = running ? queue.poll(1, TimeUnit.SECONDS) : queue.poll();
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                }
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+                while (batch.size() < batchSize) {
+                    long wait = running ? deadline - System.nanoTime() : 0;
+                    Pass next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                if (flush(batch)) {
+                    batch.clear();
+                } else if (!running) {
+                    drop(batch, "database unavailable at shutdown");
+                    batch.clear();
+                } else {
+                    // Database unavailable: keep the batch and try again
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                // stop() never interrupts; something else is tearing the thread down
+                Thread.currentThread().interrupt();
+                drop(batch, "pass writer interrupted");
+                return;
+            }
+        }
+    }
+
+    /**
+     * Write the batch. Returns false, leaving the passes not yet written in the batch, if the
+     * database could not be reached; passes the database rejects are dropped.
+     */
+    private boolean flush(List<Pass> batch) {
+        long started = System.nanoTime();
+        List<Pass> handled = new ArrayList<>(batch.size());
+        try {
+            jdbcTemplate.batchUpdate(INSERT_PASS, batch, batch.size(), (statement, pass) -> {
+                statement.setLong(1, pass.fromUserId());
+                statement.setLong(2, pass.toUserId());
+            });
+            flushed.addAndGet(batch.size());
+            handled.addAll(batch);
+        } catch (DataAccessException e) {
+            // Usually a user deleted in the meantime: retry one by one so the rest still land
+            log.warn("Pass batch of {} failed, retrying individually: {}", batch.size(), e.getMessage());
+            for (Pass pass : batch) {
+                try {
+                    jdbcTemplate.update(INSERT_PASS, pass.fromUserId(), pass.toUserId());
+                    flushed.incrementAndGet();
+                    handled.add(pass);
+                } catch (DataIntegrityViolationException rejected) {
+                    dropped.incrementAndGet();
+                    log.warn("Dropping pass {} -> {}: {}", pass.fromUserId(), pass.toUserId(), rejected.getMessage());
+                    handled.add(pass);
+                } catch (DataAccessException unavailable) {
+                    log.error("Passes cannot be written, will retry: {}", unavailable.getMessage());
+                    batch.removeAll(handled);
+                    return false;
+                }
+            }
+        } finally {
+            handled.forEach(queued::remove);
+            long elapsed = System.nanoTime() - started;
+            flushes.incrementAndGet();
+            totalFlushNanos.addAndGet(elapsed);
+            lastFlushNanos = elapsed;
+            maxFlushNanos = Math.max(maxFlushNanos, elapsed);
+        }
+        return true;
+    }
+
+    private void drop(List<Pass> passes, String reason) {
+        if (passes.isEmpty()) {
+            return;
+        }
+        dropped.addAndGet(passes.size());
+        passes.forEach(queued::remove);
+        log.error("Dropping {} acknowledged passes: {}", passes.size(), reason);
+    }
+
+    private record Pass(long fromUserId, long toUserId) {
+    }
+}
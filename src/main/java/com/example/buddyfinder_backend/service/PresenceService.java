@@ -0,0 +1,214 @@
+package com.example.buddyfinder_backend.service;
+
+import com.example.buddyfinder_backend.dto.PresenceStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Who is connected over STOMP right now, and when everyone else was last seen.
+ *
+ * Two maps: STOMP session id to its user and last heartbeat, and user id to an immutable
+ * {@link Presence} (open session count, last seen). Connects and disconnects replace a user's
+ * Presence atomically with {@code compute}; heartbeats and lookups never lock, a heartbeat is a
+ * single volatile write on its session. Memory is bounded by the number of open sessions, roughly
+ * 200 bytes each, plus the offline users still inside {@code presence.last-seen-retention-ms},
+ * capped at {@code presence.max-offline-users}.
+ *
+ * Sessions that negotiated heartbeats and stop sending them (half-open TCP, a crashed client) are
+ * swept after missing three. Sessions whose CONNECT carried no valid token are counted as
+ * anonymous: they could belong to anyone, so while one is open nobody is known to be offline.
+ * Presence is per node as well, so only {@link #isKnownOffline} should be used to skip work.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PresenceService {
+
+    private final UserSearchIndex userSearchIndex;
+
+    @Value("${websocket.heartbeat-ms:10000}")
+    private long heartbeatMillis;
+
+    @Value("${websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${presence.last-seen-retention-ms:86400000}")
+    private long lastSeenRetentionMillis;
+
+    @Value("${presence.max-offline-users:200000}")
+    private int maxOfflineUsers;
+
+    @Value("${presence.lookup.max-users:500}")
+    private int maxLookupUsers;
+
+    // Off by default: skipping pushes is only safe when every client authenticates its STOMP CONNECT
+    @Value("${presence.skip-offline-pushes:false}")
+    private boolean skipOfflinePushes;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final Map<Long, Presence> users = new ConcurrentHashMap<>();
+    private final AtomicInteger anonymousSessions = new AtomicInteger();
+
+    /**
+     * @param clientHeartbeatMillis heartbeat interval the client offered in CONNECT, 0 for none
+     */
+    public void connected(String sessionId, Long userId, long clientHeartbeatMillis) {
+        long now = System.currentTimeMillis();
+        // Missing three heartbeats at the negotiated interval means the connection is gone
+        long timeout = clientHeartbeatMillis > 0 ? 3 * Math.max(clientHeartbeatMillis, heartbeatMillis) : 0;
+        if (sessions.putIfAbsent(sessionId, new Session(userId, timeout, now)) != null) {
+            return;
+        }
+        if (userId == null) {
+            anonymousSessions.incrementAndGet();
+            return;
+        }
+        users.compute(userId, (id, presence) ->
+                new Presence(presence != null ? presence.sessions() + 1 : 1, now));
+    }
+
+    public void disconnected(String sessionId) {
+        Session session = sessions.remove(sessionId);
+        if (session == null) {
+            return;
+        }
+        if (session.userId == null) {
+            anonymousSessions.decrementAndGet();
+            return;
+        }
+        long now = System.currentTimeMillis();
+        users.compute(session.userId, (id, presence) ->
+                new Presence(presence != null ? Math.max(0, presence.sessions() - 1) : 0, now));
+    }
+
+    /**
+     * Any inbound frame, heartbeats included, shows the session is alive.
+     */
+    public void touch(String sessionId) {
+        Session session = sessions.get(sessionId);
+        if (session != null) {
+            session.lastHeartbeat = System.currentTimeMillis();
+        }
+    }
+
+    public boolean isOnline(Long userId) {
+        Presence presence = users.get(userId);
+        return presence != null && presence.sessions() > 0;
+    }
+
+    /**
+     * True only when presence is authoritative and the user has no session, so a push to them
+     * would reach nobody: the skip is enabled, this node sees every connection (simple broker) and
+     * no anonymous session is open that could be theirs.
+     */
+    public boolean isKnownOffline(Long userId) {
+        return skipOfflinePushes
+                && !"relay".equalsIgnoreCase(brokerMode)
+                && anonymousSessions.get() == 0
+                && !isOnline(userId);
+    }
+
+    /**
+     * Online flag and last-seen time for each user, in request order. Users in incognito mode
+     * show as offline with no last-seen time, except to themselves.
+     */
+    public List<PresenceStatus> lookup(Long requesterId, Collection<Long> userIds) {
+        if (userIds.size() > maxLookupUsers) {
+            throw new IllegalArgumentException("At most " + maxLookupUsers + " users per lookup");
+        }
+        List<PresenceStatus> statuses = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            Presence presence = users.get(userId);
+            if (presence == null || (!userId.equals(requesterId) && userSearchIndex.isIncognito(userId))) {
+                statuses.add(PresenceStatus.builder().userId(userId).online(false).build());
+                continue;
+            }
+            boolean online = presence.sessions() > 0;
+            statuses.add(PresenceStatus.builder()
+                    .userId(userId)
+                    .online(online)
+                    .lastSeen(online ? LocalDateTime.now() : toLocalDateTime(presence.lastSeen()))
+                    .build());
+        }
+        return statuses;
+    }
+
+    public Map<String, Object> metrics() {
+        long online = users.values().stream().filter(presence -> presence.sessions() > 0).count();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("sessions", sessions.size());
+        metrics.put("anonymousSessions", anonymousSessions.get());
+        metrics.put("onlineUsers", online);
+        metrics.put("offlineUsers", users.size() - online);
+        return metrics;
+    }
+
+    /**
+     * Drop sessions that stopped heartbeating, and forget users offline for longer than the
+     * retention (or the oldest ones, beyond the cap).
+     */
+    @Scheduled(fixedDelayString = "${presence.sweep-interval-ms:30000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        int expired = 0;
+        for (Map.Entry<String, Session> entry : sessions.entrySet()) {
+            Session session = entry.getValue();
+            if (session.timeoutMillis > 0 && now - session.lastHeartbeat > session.timeoutMillis) {
+                disconnected(entry.getKey());
+                expired++;
+            }
+        }
+
+        long forgetBefore = now - lastSeenRetentionMillis;
+        users.entrySet().removeIf(entry ->
+                entry.getValue().sessions() == 0 && entry.getValue().lastSeen() < forgetBefore);
+        List<Map.Entry<Long, Presence>> offline = users.entrySet().stream()
+                .filter(entry -> entry.getValue().sessions() == 0)
+                .toList();
+        if (offline.size() > maxOfflineUsers) {
+            offline.stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().lastSeen()))
+                    .limit(offline.size() - maxOfflineUsers)
+                    // Only if still offline and unchanged since the snapshot
+                    .forEach(entry -> users.remove(entry.getKey(), entry.getValue()));
+        }
+        if (expired > 0) {
+            log.info("Presence sweep expired {} sessions without heartbeats", expired);
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private record Presence(int sessions, long lastSeen) {
+    }
+
+    private static final class Session {
+        // null for a session without a valid token
+        private final Long userId;
+        private final long timeoutMillis;
+        private volatile long lastHeartbeat;
+
+        private Session(Long userId, long timeoutMillis, long lastHeartbeat) {
+            this.userId = userId;
+            this.timeoutMillis = timeoutMillis;
+            this.lastHeartbeat = lastHeartbeat;
+        }
+    }
+}
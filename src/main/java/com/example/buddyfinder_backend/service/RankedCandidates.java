@@ -0,0 +1,39 @@
+package com.example.buddyfinder_backend.service;
+
+/**
+ * Best-scoring candidates of one search page, best first, as produced by
+ * {@link UserSearchIndex#rankTopK}.
+ */
+public final class RankedCandidates {
+
+    private final long[] userIds;
+    private final float[] scores;
+    private final int size;
+    private final boolean hasMore;
+
+    RankedCandidates(long[] userIds, float[] scores, int size, boolean hasMore) {
+        this.userIds = userIds;
+        this.scores = scores;
+        this.size = size;
+        this.hasMore = hasMore;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long userIdAt(int position) {
+        return userIds[position];
+    }
+
+    public float scoreAt(int position) {
+        return scores[position];
+    }
+
+    /**
+     * Whether more eligible candidates rank below the last one returned.
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+}
@@ -17,6 +17,7 @@ public class RatingService {
 
     private final RatingRepository ratingRepository;
     private final UserRepository userRepository;
+    private final UserSearchIndex userSearchIndex;
 
     public Rating submitRating(Long fromUserId, Long toUserId, Map<String, Object> ratingData) {
         User fromUser = userRepository.findById(fromUserId)
@@ -31,7 +32,9 @@ public class RatingService {
             // Update existing rating
             Rating rating = existingRating.get();
             updateRatingFields(rating, ratingData);
-            return ratingRepository.save(rating);
+            Rating saved = ratingRepository.save(rating);
+            refreshSearchRating(toUserId);
+            return saved;
         } else {
             // Create new rating
             Rating rating = Rating.builder()
@@ -47,10 +50,17 @@ public class RatingService {
                             ((Number) ratingData.get("friendlinessScore")).floatValue() : null)
                     .build();
 
-            return ratingRepository.save(rating);
+            Rating saved = ratingRepository.save(rating);
+            refreshSearchRating(toUserId);
+            return saved;
         }
     }
 
+    // Keep the rating used to rank search results in step with the table
+    private void refreshSearchRating(Long userId) {
+        userSearchIndex.updateRating(userId, ratingRepository.getAverageRating(userId));
+    }
+
     public List<Rating> getRatingsForUser(Long userId) {
         return ratingRepository.findByToUser_UserId(userId);
     }
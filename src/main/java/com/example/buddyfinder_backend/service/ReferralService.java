@@ -4,10 +4,12 @@ import com.example.buddyfinder_backend.dto.ReferralResponse;
 import com.example.buddyfinder_backend.entity.Notification;
 import com.example.buddyfinder_backend.entity.Referral;
 import com.example.buddyfinder_backend.entity.User;
+import com.example.buddyfinder_backend.event.UserChangedEvent;
 import com.example.buddyfinder_backend.repository.ReferralRepository;
 import com.example.buddyfinder_backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +26,7 @@ public class ReferralService {
     private final ReferralRepository referralRepository;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Get or create referral code for user
@@ -242,7 +245,8 @@ public class ReferralService {
             user.setTier(User.TierType.PREMIUM);
         }
 
-        userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(UserChangedEvent.updated(saved));
 
         // Mark referrals as claimed
         List<Referral> referrals = referralRepository.findByReferrer_UserIdOrderByCreatedAtDesc(userId);
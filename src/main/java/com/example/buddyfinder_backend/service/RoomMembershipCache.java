@@ -0,0 +1,138 @@
+package com.example.buddyfinder_backend.service;
+
+import com.example.buddyfinder_backend.entity.ChatRoom;
+import com.example.buddyfinder_backend.entity.ChatRoomMember;
+import com.example.buddyfinder_backend.event.UserChangedEvent;
+import com.example.buddyfinder_backend.repository.ChatRoomMemberRepository;
+import com.example.buddyfinder_backend.repository.ChatRoomRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Members of each group chat room, with their display names, so sending a group message and
+ * relaying typing events need no queries. A room is loaded the first time it is used and then
+ * kept in step by {@link GroupChatService} (join, leave) and by activity deletion. Changes made
+ * inside a transaction are applied once it commits.
+ *
+ * Those updates only reach this node. Joins and leaves handled by another node are picked up in
+ * two ways: a room is reloaded once it is older than {@code chat.room-membership.ttl-ms}, and a
+ * user the cache does not list is looked up in the database before being refused, so a member who
+ * just joined elsewhere is never locked out. A member who left elsewhere can still post until the
+ * room expires.
+ */
+@Component
+@RequiredArgsConstructor
+public class RoomMembershipCache {
+
+    private final ChatRoomRepository chatRoomRepository;
+    private final ChatRoomMemberRepository chatRoomMemberRepository;
+
+    @Value("${chat.room-membership.ttl-ms:30000}")
+    private long ttlMillis;
+
+    private final Map<Long, RoomMembers> rooms = new ConcurrentHashMap<>();
+
+    public RoomMembers get(Long roomId) {
+        RoomMembers room = rooms.computeIfAbsent(roomId, this::load);
+        if (!isExpired(room)) {
+            return room;
+        }
+        return rooms.compute(roomId, (id, current) -> current == null || isExpired(current) ? load(id) : current);
+    }
+
+    /**
+     * The room, reloaded first if it does not list {@code userId} but the database does.
+     */
+    public RoomMembers get(Long roomId, Long userId) {
+        RoomMembers room = get(roomId);
+        if (room.includes(userId) || !chatRoomMemberRepository.existsByChatRoom_IdAndUser_UserId(roomId, userId)) {
+            return room;
+        }
+        RoomMembers reloaded = load(roomId);
+        rooms.put(roomId, reloaded);
+        return reloaded;
+    }
+
+    public void memberJoined(Long roomId, Long userId, String name) {
+        afterCommit(() -> rooms.computeIfPresent(roomId, (id, room) -> {
+            room.members().put(userId, name);
+            return room;
+        }));
+    }
+
+    public void memberLeft(Long roomId, Long userId) {
+        afterCommit(() -> rooms.computeIfPresent(roomId, (id, room) -> {
+            room.members().remove(userId);
+            return room;
+        }));
+    }
+
+    public void roomDeleted(Long roomId) {
+        afterCommit(() -> rooms.remove(roomId));
+    }
+
+    /**
+     * Keep display names current, and drop deleted users from every room.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        Long userId = event.getUserId();
+        for (RoomMembers room : rooms.values()) {
+            if (event.isDeleted()) {
+                room.members().remove(userId);
+            } else {
+                room.members().computeIfPresent(userId, (id, name) -> event.getUser().getName());
+            }
+        }
+    }
+
+    private RoomMembers load(Long roomId) {
+        ChatRoom room = chatRoomRepository.findById(roomId)
+                .orElseThrow(() -> new RuntimeException("Chat room not found"));
+        Map<Long, String> members = new ConcurrentHashMap<>();
+        for (ChatRoomMember member : chatRoomMemberRepository.findByChatRoom_Id(roomId)) {
+            members.put(member.getUser().getUserId(), member.getUser().getName());
+        }
+        String title = room.getActivity() != null ? room.getActivity().getTitle() : "Group chat";
+        return new RoomMembers(title, members, System.currentTimeMillis());
+    }
+
+    private boolean isExpired(RoomMembers room) {
+        return System.currentTimeMillis() - room.loadedAt() >= ttlMillis;
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    /**
+     * @param members user id to display name
+     * @param loadedAt when the room was read from the database
+     */
+    public record RoomMembers(String activityTitle, Map<Long, String> members, long loadedAt) {
+
+        public boolean includes(Long userId) {
+            return members.containsKey(userId);
+        }
+
+        public String nameOf(Long userId) {
+            return members.get(userId);
+        }
+    }
+}
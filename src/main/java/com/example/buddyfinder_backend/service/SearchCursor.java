@@ -0,0 +1,63 @@
+package com.example.buddyfinder_backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for paginated search.
+ *
+ * Encodes the sort key of the last item returned: the compatibility score plus user id for ranked
+ * searches (best first), or the distance plus user id for radius searches (nearest first). The
+ * next page resumes right after that key instead of rescanning from the first candidate.
+ */
+final class SearchCursor {
+
+    private static final String VERSION = "v1";
+
+    enum Order {
+        DISTANCE, SCORE
+    }
+
+    final Order order;
+    final float sortKey;
+    final long userId;
+
+    SearchCursor(Order order, float sortKey, long userId) {
+        this.order = order;
+        this.sortKey = sortKey;
+        this.userId = userId;
+    }
+
+    String encode() {
+        String raw = VERSION + ":" + order.name() + ":" + Integer.toHexString(Float.floatToIntBits(sortKey)) + ":" + userId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static SearchCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 4 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid search cursor");
+            }
+            Order order = Order.valueOf(parts[1]);
+            float sortKey = Float.intBitsToFloat(Integer.parseUnsignedInt(parts[2], 16));
+            return new SearchCursor(order, sortKey, Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid search cursor");
+        }
+    }
+
+    /**
+     * True when the candidate sorts strictly after this cursor.
+     */
+    boolean isBefore(float candidateSortKey, long candidateUserId) {
+        int byKey = order == Order.DISTANCE
+                ? Float.compare(sortKey, candidateSortKey)
+                : Float.compare(candidateSortKey, sortKey);
+        if (byKey != 0) {
+            return byKey < 0;
+        }
+        return userId < candidateUserId;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.buddyfinder_backend.service;
+
+import com.example.buddyfinder_backend.dto.SearchFilters;
+import com.example.buddyfinder_backend.event.UserChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of base candidate sets (before per-user exclusions), keyed by the normalized
+ * search filters. Many users in the same city search with the same filters within seconds; they
+ * share one {@link UserSearchIndex#findCandidates} call instead of repeating it.
+ *
+ * Concurrent identical requests coalesce onto a single in-flight computation. An entry is
+ * dropped when its TTL expires or when a user it contains changes (profile edit, incognito,
+ * ban, deletion). In-flight computations are dropped on every change, since they may have read
+ * the index before it. A user who starts matching a cached filter shows up once the TTL expires.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchResultCache {
+
+    private final UserSearchIndex userSearchIndex;
+
+    private final Map<String, CompletableFuture<CachedCandidates>> entries = new ConcurrentHashMap<>();
+
+    @Value("${search.cache.ttl-ms:5000}")
+    private long ttlMillis;
+
+    @Value("${search.cache.max-entries:1000}")
+    private int maxEntries;
+
+    public CandidateRows findCandidates(SearchFilters filters) {
+        String key = keyOf(filters);
+        long now = System.currentTimeMillis();
+
+        CompletableFuture<CachedCandidates> existing = entries.get(key);
+        if (existing != null && isUsable(existing, now)) {
+            return await(existing);
+        }
+
+        CompletableFuture<CachedCandidates> mine = new CompletableFuture<>();
+        CompletableFuture<CachedCandidates> current = entries.compute(key,
+                (k, cached) -> cached != null && isUsable(cached, now) ? cached : mine);
+        if (current != mine) {
+            return await(current);
+        }
+
+        try {
+            CandidateRows rows = userSearchIndex.findCandidates(filters);
+            mine.complete(new CachedCandidates(rows, now + ttlMillis));
+            evictIfFull(now);
+            return rows;
+        } catch (RuntimeException e) {
+            entries.remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        long userId = event.getUserId();
+        entries.values().removeIf(future -> !future.isDone()
+                || future.isCompletedExceptionally()
+                || future.join().rows.containsUser(userId));
+    }
+
+    private boolean isUsable(CompletableFuture<CachedCandidates> future, long now) {
+        if (!future.isDone()) {
+            return true; // join the computation in flight
+        }
+        return !future.isCompletedExceptionally() && future.join().expiresAt > now;
+    }
+
+    private void evictIfFull(long now) {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        entries.values().removeIf(future -> future.isDone() && !isUsable(future, now));
+        if (entries.size() > maxEntries) {
+            log.debug("Search result cache over {} entries after expiry, clearing", maxEntries);
+            entries.values().removeIf(CompletableFuture::isDone);
+        }
+    }
+
+    private static CandidateRows await(CompletableFuture<CachedCandidates> future) {
+        try {
+            return future.join().rows;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Filters that select the same candidates map to the same key: text is trimmed, lower-cased
+     * and whitespace-collapsed, and only the fields {@link UserSearchIndex} actually reads count.
+     */
+    static String keyOf(SearchFilters filters) {
+        if (filters == null) {
+            return "*";
+        }
+        String interests = normalize(filters.getActivity());
+        if (interests.isEmpty()) {
+            interests = normalize(filters.getInterests());
+        }
+        boolean radius = filters.getLatitude() != null && filters.getLongitude() != null
+                && filters.getRadiusKm() != null && filters.getRadiusKm() > 0;
+        return String.join("|",
+                normalize(filters.getGender()),
+                normalize(filters.getFitnessLevel()),
+                normalize(filters.getMbtiType()),
+                normalize(filters.getZodiacSign()),
+                interests,
+                normalize(filters.getLocation()),
+                normalize(filters.getTime()),
+                radius ? filters.getLatitude() + "," + filters.getLongitude() + "," + filters.getRadiusKm() : "");
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static final class CachedCandidates {
+        private final CandidateRows rows;
+        private final long expiresAt;
+
+        private CachedCandidates(CandidateRows rows, long expiresAt) {
+            this.rows = rows;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,29 +1,44 @@
 package com.example.buddyfinder_backend.service;
 
 import com.example.buddyfinder_backend.dto.SearchFilters;
+import com.example.buddyfinder_backend.dto.SearchPage;
 import com.example.buddyfinder_backend.dto.UserResponse;
-import com.example.buddyfinder_backend.entity.Profile;
 import com.example.buddyfinder_backend.entity.User;
-import com.example.buddyfinder_backend.repository.LikesRepository;
-import com.example.buddyfinder_backend.repository.ProfileRepository;
-import com.example.buddyfinder_backend.repository.RatingRepository;
 import com.example.buddyfinder_backend.repository.UserRepository;
-import com.example.buddyfinder_backend.util.PremiumAccessUtil;
+import com.example.buddyfinder_backend.util.LongHashSet;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class SearchService {
 
     private final UserRepository userRepository;
-    private final LikesRepository likesRepository;
-    private final ProfileRepository profileRepository;
-    private final RatingRepository ratingRepository;
+    private final UserSearchIndex userSearchIndex;
+    private final SearchResultCache searchResultCache;
+    private final SwipeHistoryCache swipeHistoryCache;
+    private final DiscoveryDeckService discoveryDeckService;
+    private final UserResponseAssembler userResponseAssembler;
+
+    @Value("${search.page-size.free:10}")
+    private int freePageSize;
+
+    @Value("${search.page-size.premium:20}")
+    private int premiumPageSize;
+
+    @Value("${search.page-size.elite:30}")
+    private int elitePageSize;
 
     public List<UserResponse> searchBuddies(Long currentUserId, String location, String interests) {
         SearchFilters filters = SearchFilters.builder()
@@ -31,206 +46,166 @@ public class SearchService {
                 .interests(interests)
                 .activity(interests)
                 .build();
-        return searchInternal(currentUserId, filters, 20);
+        return searchInternal(currentUserId, filters, null, 20).getItems();
     }
 
     public List<UserResponse> searchWithFilters(Long currentUserId, SearchFilters filters) {
-        return searchInternal(currentUserId, filters, 20);
+        return searchInternal(currentUserId, filters, null, 20).getItems();
     }
 
     public List<UserResponse> getPotentialMatches(Long currentUserId, SearchFilters filters) {
-        return searchInternal(currentUserId, filters, 10);
+        if (!hasCriteria(filters)) {
+            return getPotentialMatches(currentUserId);
+        }
+        return searchInternal(currentUserId, filters, null, 10).getItems();
     }
 
+    /**
+     * Unfiltered swipe screen: served from the user's pre-computed discovery deck.
+     */
     public List<UserResponse> getPotentialMatches(Long currentUserId) {
-        return searchInternal(currentUserId, null, 10);
-    }
-
-    private static final double EARTH_RADIUS_KM = 6371.0;
-
-    private List<UserResponse> searchInternal(Long currentUserId, SearchFilters filters, int limit) {
-        List<User> allUsers = userRepository.findAll();
-
-        return allUsers.stream()
-                .filter(user -> !user.getUserId().equals(currentUserId))
-                .filter(User::getIsActive)
-                .filter(user -> !Boolean.TRUE.equals(user.getIsAdmin()))
-                .filter(user -> !Boolean.TRUE.equals(user.getIncognitoMode()))
-                .filter(user -> !hasAlreadyLiked(currentUserId, user.getUserId()))
-                .filter(user -> matchesFilters(user, filters))
-                .limit(limit)
-                .map(this::mapToUserResponseWithPhotos)
-                .collect(Collectors.toList());
+        return userResponseAssembler.toResponsesWithPhotos(loadInOrder(discoveryDeckService.next(currentUserId, 10)));
     }
 
-    private boolean hasAlreadyLiked(Long fromUserId, Long toUserId) {
-        return likesRepository.existsByFromUser_UserIdAndToUser_UserId(fromUserId, toUserId);
+    /**
+     * One page of search results. {@code cursor} is the {@code nextCursor} of the previous page
+     * (null for the first page); the page size comes from the caller's tier.
+     */
+    public SearchPage searchPage(Long currentUserId, SearchFilters filters, String cursor, Integer requestedSize) {
+        int tierPageSize = pageSizeFor(userSearchIndex.tierOf(currentUserId));
+        int pageSize = requestedSize != null && requestedSize > 0
+                ? Math.min(requestedSize, tierPageSize)
+                : tierPageSize;
+        SearchCursor after = cursor != null && !cursor.isBlank() ? SearchCursor.decode(cursor) : null;
+        return searchInternal(currentUserId, filters, after, pageSize);
     }
 
-    private boolean matchesFilters(User user, SearchFilters filters) {
+    private static boolean hasCriteria(SearchFilters filters) {
         if (filters == null) {
-            return true;
+            return false;
         }
+        return isPresent(filters.getLocation()) || isPresent(filters.getInterests())
+                || isPresent(filters.getActivity()) || isPresent(filters.getTime())
+                || isPresent(filters.getMbtiType()) || isPresent(filters.getZodiacSign())
+                || isPresent(filters.getFitnessLevel()) || isPresent(filters.getGender())
+                || (filters.getLatitude() != null && filters.getLongitude() != null && filters.getRadiusKm() != null);
+    }
 
-        return matchesLocation(user, filters)
-                && matchesActivity(user, filters)
-                && matchesEquals(user.getMbtiType(), filters.getMbtiType())
-                && matchesEquals(user.getZodiacSign(), filters.getZodiacSign())
-                && matchesEquals(user.getFitnessLevel(), filters.getFitnessLevel())
-                && matchesEquals(user.getGender(), filters.getGender())
-                && matchesTime(user.getAvailability(), filters.getTime());
+    private static boolean isPresent(String value) {
+        return value != null && !value.isBlank();
     }
 
-    private boolean matchesLocation(User user, SearchFilters filters) {
-        if (filters == null) {
-            return true;
+    private int pageSizeFor(String tier) {
+        if ("ELITE".equals(tier)) {
+            return elitePageSize;
         }
-
-        if (isRadiusSearch(filters)) {
-            if (user.getLatitude() == null || user.getLongitude() == null) {
-                return false;
+        if ("PREMIUM".equals(tier)) {
+            return premiumPageSize;
+        }
+        return freePageSize;
+    }
+
+    /**
+     * Radius searches are served nearest first straight from the index. Every other search ranks
+     * all eligible candidates by compatibility with the searching user and returns the best ones.
+     */
+    private SearchPage searchInternal(Long currentUserId, SearchFilters filters, SearchCursor after, int limit) {
+        long started = System.nanoTime();
+        CandidateRows candidates = searchResultCache.findCandidates(filters);
+        long filtered = System.nanoTime();
+        SearchCursor.Order order = candidates.hasDistances() ? SearchCursor.Order.DISTANCE : SearchCursor.Order.SCORE;
+        if (after != null && after.order != order) {
+            throw new IllegalArgumentException("Search cursor does not match these filters");
+        }
+        LongHashSet alreadySwiped = swipeHistoryCache.swipedBy(currentUserId);
+        long swipesLoaded = System.nanoTime();
+
+        List<Long> candidateIds = new ArrayList<>(limit);
+        Map<Long, Float> distances = new HashMap<>();
+        SearchCursor nextCursor = null;
+        if (order == SearchCursor.Order.DISTANCE) {
+            int position = after != null ? firstPositionAfter(candidates, after) : 0;
+            int lastTaken = -1;
+            for (; position < candidates.size(); position++) {
+                long userId = candidates.userIdAt(position);
+                if (userId == currentUserId || alreadySwiped.contains(userId)) {
+                    continue;
+                }
+                if (candidateIds.size() == limit) {
+                    nextCursor = new SearchCursor(order, candidates.distanceAt(lastTaken), candidates.userIdAt(lastTaken));
+                    break;
+                }
+                candidateIds.add(userId);
+                distances.put(userId, candidates.distanceAt(position));
+                lastTaken = position;
             }
-            double distance = calculateDistanceKm(
-                    filters.getLatitude(),
-                    filters.getLongitude(),
-                    user.getLatitude().doubleValue(),
-                    user.getLongitude().doubleValue()
-            );
-            if (distance > filters.getRadiusKm()) {
-                return false;
+        } else {
+            RankedCandidates ranked = userSearchIndex.rankTopK(currentUserId, candidates, alreadySwiped, after, limit);
+            for (int i = 0; i < ranked.size(); i++) {
+                candidateIds.add(ranked.userIdAt(i));
+            }
+            if (ranked.hasMore()) {
+                int last = ranked.size() - 1;
+                nextCursor = new SearchCursor(order, ranked.scoreAt(last), ranked.userIdAt(last));
             }
-            return matchesContains(user.getLocation(), filters.getLocation());
-        }
-
-        return matchesContains(user.getLocation(), filters.getLocation());
-    }
-
-    private boolean isRadiusSearch(SearchFilters filters) {
-        return filters.getLatitude() != null
-                && filters.getLongitude() != null
-                && filters.getRadiusKm() != null
-                && filters.getRadiusKm() > 0;
-    }
-
-    private double calculateDistanceKm(double lat1, double lon1, double lat2, double lon2) {
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
-
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-
-        return EARTH_RADIUS_KM * c;
-    }
-
-    private boolean matchesActivity(User user, SearchFilters filters) {
-        String activityFilter = firstNonBlank(filters.getActivity(), filters.getInterests());
-        if (isBlank(activityFilter)) {
-            return true;
         }
-        return matchesContains(user.getInterests(), activityFilter);
-    }
+        long ranked = System.nanoTime();
 
-    private boolean matchesContains(String source, String filter) {
-        if (isBlank(filter)) {
-            return true;
+        List<UserResponse> items = userResponseAssembler.toResponsesWithPhotos(loadInOrder(candidateIds));
+        for (UserResponse response : items) {
+            Float distance = distances.get(response.getUserId());
+            if (distance != null) {
+                response.setDistanceKm(Math.round(distance * 10.0) / 10.0);
+            }
         }
-        if (isBlank(source)) {
-            return false;
+        long hydrated = System.nanoTime();
+
+        if (log.isDebugEnabled()) {
+            log.debug("Search for user {}: {} candidates, {} returned; filter {} ms, swipes {} ms, {} {} ms, load {} ms",
+                    currentUserId, candidates.size(), items.size(),
+                    millis(started, filtered), millis(filtered, swipesLoaded),
+                    order == SearchCursor.Order.SCORE ? "rank" : "page", millis(swipesLoaded, ranked),
+                    millis(ranked, hydrated));
         }
-        return source.toLowerCase().contains(filter.toLowerCase());
-    }
 
-    private boolean matchesEquals(String source, String filter) {
-        if (isBlank(filter)) {
-            return true;
-        }
-        if (isBlank(source)) {
-            return false;
-        }
-        return source.equalsIgnoreCase(filter.trim());
+        return SearchPage.builder()
+                .items(items)
+                .nextCursor(nextCursor != null ? nextCursor.encode() : null)
+                .hasMore(nextCursor != null)
+                .build();
     }
 
-    private boolean matchesTime(String availability, String timeFilter) {
-        if (isBlank(timeFilter)) {
-            return true;
-        }
-        if (isBlank(availability)) {
-            return false;
-        }
-        String normalizedAvailability = availability.toLowerCase();
-        return switch (timeFilter.toLowerCase()) {
-            case "morning" -> containsAny(normalizedAvailability, "morning", "6am", "before noon");
-            case "afternoon" -> containsAny(normalizedAvailability, "afternoon", "midday", "after lunch");
-            case "evening" -> containsAny(normalizedAvailability, "evening", "night", "pm", "after work");
-            case "weekends" -> containsAny(normalizedAvailability, "weekend", "saturday", "sunday");
-            default -> normalizedAvailability.contains(timeFilter.toLowerCase());
-        };
+    private static String millis(long fromNanos, long toNanos) {
+        return String.format("%.2f", (toNanos - fromNanos) / 1_000_000.0);
     }
 
-    private boolean containsAny(String source, String... terms) {
-        for (String term : terms) {
-            if (source.contains(term)) {
-                return true;
+    /**
+     * Binary search for the first candidate that sorts after the cursor, so later pages cost
+     * the same as the first one.
+     */
+    private int firstPositionAfter(CandidateRows candidates, SearchCursor cursor) {
+        int low = 0;
+        int high = candidates.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cursor.isBefore(candidates.distanceAt(mid), candidates.userIdAt(mid))) {
+                high = mid;
+            } else {
+                low = mid + 1;
             }
         }
-        return false;
+        return low;
     }
 
-    private String firstNonBlank(String... values) {
-        for (String value : values) {
-            if (!isBlank(value)) {
-                return value;
-            }
+    private List<User> loadInOrder(List<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
         }
-        return null;
-    }
-
-    private boolean isBlank(String value) {
-        return value == null || value.trim().isEmpty();
-    }
-
-    // Includes photos from profile
-    private UserResponse mapToUserResponseWithPhotos(User user) {
-        UserResponse.UserResponseBuilder builder = UserResponse.builder()
-                .userId(user.getUserId())
-                .name(user.getName())
-                .email(user.getEmail())
-                .age(user.getAge())
-                .gender(user.getGender())
-                .interests(user.getInterests())
-                .location(user.getLocation())
-                .latitude(user.getLatitude())
-                .longitude(user.getLongitude())
-                .availability(user.getAvailability())
-                .bio(user.getBio())
-                .tier(user.getTier() != null ? user.getTier().name() : null)
-                .fitnessLevel(user.getFitnessLevel())
-                .isVerified(user.getIsVerified())
-                .isAdmin(user.getIsAdmin())
-                .isSuperAdmin(user.getIsSuperAdmin())
-                .profilePictureUrl(user.getProfilePictureUrl())
-                .incognitoMode(user.getIncognitoMode());
-
-        PremiumAccessUtil.applyPremiumTraits(user, builder);
-
-        // Add photos from profile
-        Optional<Profile> profile = profileRepository.findByUser_UserId(user.getUserId());
-        profile.ifPresent(p -> builder.photos(p.getPhotos()));
-
-        Double avgRating = ratingRepository.getAverageRating(user.getUserId());
-        double roundedAvg = avgRating != null ? Math.round(avgRating * 10.0) / 10.0 : 0.0;
-        long totalRatings = ratingRepository.countByToUser_UserId(user.getUserId());
-        builder.averageRating(avgRating != null ? roundedAvg : null);
-        builder.totalRatings(totalRatings);
-
-        return builder.build();
-    }
-
-    // Keep old method for backward compatibility
-    private UserResponse mapToUserResponse(User user) {
-        return mapToUserResponseWithPhotos(user);
+        Map<Long, User> usersById = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getUserId, Function.identity()));
+        return userIds.stream()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,94 @@
+package com.example.buddyfinder_backend.service;
+
+import com.example.buddyfinder_backend.event.UserChangedEvent;
+import com.example.buddyfinder_backend.repository.LikesRepository;
+import com.example.buddyfinder_backend.util.LongHashSet;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-user set of every user they have already swiped on (LIKE, SUPER_LIKE and PASS).
+ *
+ * A user's set is loaded from the likes table the first time it is needed and then kept up to
+ * date by {@link MatchService}, so search can exclude swiped users without a query per candidate.
+ * Only the most recently used sets are kept in memory.
+ */
+@Component
+@RequiredArgsConstructor
+public class SwipeHistoryCache {
+
+    private static final int MAX_CACHED_USERS = 20_000;
+
+    private final LikesRepository likesRepository;
+
+    private final Map<Long, SwipeHistory> histories = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, SwipeHistory> eldest) {
+                    return size() > MAX_CACHED_USERS;
+                }
+            });
+
+    /**
+     * Copy of the ids {@code userId} has swiped on, safe to read without further locking.
+     */
+    public LongHashSet swipedBy(Long userId) {
+        SwipeHistory history = historyFor(userId);
+        synchronized (history) {
+            loadIfNeeded(userId, history);
+            return history.targets.copy();
+        }
+    }
+
+    public boolean hasSwiped(Long fromUserId, Long toUserId) {
+        SwipeHistory history = historyFor(fromUserId);
+        synchronized (history) {
+            loadIfNeeded(fromUserId, history);
+            return history.targets.contains(toUserId);
+        }
+    }
+
+    /**
+     * Record a swipe that has just been written. Swipes recorded before the set is loaded are
+     * merged with the database rows when it is.
+     */
+    public void recordSwipe(Long fromUserId, Long toUserId) {
+        SwipeHistory history = historyFor(fromUserId);
+        synchronized (history) {
+            history.targets.add(toUserId);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.isDeleted()) {
+            histories.remove(event.getUserId());
+        }
+    }
+
+    // Caller holds the history's lock
+    private void loadIfNeeded(Long userId, SwipeHistory history) {
+        if (!history.loaded) {
+            for (Long targetId : likesRepository.findTargetUserIdsByFromUserId(userId)) {
+                history.targets.add(targetId);
+            }
+            history.loaded = true;
+        }
+    }
+
+    private SwipeHistory historyFor(Long userId) {
+        synchronized (histories) {
+            return histories.computeIfAbsent(userId, id -> new SwipeHistory());
+        }
+    }
+
+    private static final class SwipeHistory {
+        private final LongHashSet targets = new LongHashSet();
+        private boolean loaded;
+    }
+}
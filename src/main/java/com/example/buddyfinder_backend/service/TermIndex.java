@@ -0,0 +1,181 @@
+package com.example.buddyfinder_backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inverted index from terms to the rows of {@link UserSearchIndex} that contain them.
+ *
+ * Each distinct term has a posting list (a bitset of rows), and a character-trigram index over
+ * the term dictionary finds the terms a query can match. A query term matches a term when it
+ * occurs in it as a substring, or, for queries of {@value #MIN_FUZZY_LENGTH}+ characters, with
+ * at most one typo. Query cost depends on the dictionary and posting list sizes, not on a scan of
+ * every user.
+ *
+ * Not thread-safe: the owning index guards it with its own read/write lock.
+ */
+final class TermIndex {
+
+    private static final int MIN_FUZZY_LENGTH = 5;
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private final List<BitSet> rowsByTerm = new ArrayList<>();
+    private final Map<String, BitSet> termsByTrigram = new HashMap<>();
+    private int[][] termsByRow = new int[0][];
+
+    /**
+     * Replace the terms of {@code row}.
+     */
+    void put(int row, List<String> rowTerms) {
+        remove(row);
+        if (rowTerms.isEmpty()) {
+            return;
+        }
+        int[] ids = new int[rowTerms.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = internTerm(rowTerms.get(i));
+            rowsByTerm.get(ids[i]).set(row);
+        }
+        termsByRow[row] = ids;
+    }
+
+    void remove(int row) {
+        if (row >= termsByRow.length) {
+            termsByRow = Arrays.copyOf(termsByRow, Math.max(row + 1, termsByRow.length * 2));
+        }
+        int[] previous = termsByRow[row];
+        if (previous != null) {
+            for (int termId : previous) {
+                rowsByTerm.get(termId).clear(row);
+            }
+            termsByRow[row] = null;
+        }
+    }
+
+    /**
+     * Rows holding a match for every query term.
+     */
+    BitSet matchAll(List<String> queryTerms) {
+        BitSet result = null;
+        for (String queryTerm : queryTerms) {
+            BitSet rows = matchOne(queryTerm);
+            if (result == null) {
+                result = rows;
+            } else {
+                result.and(rows);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result != null ? result : new BitSet();
+    }
+
+    private BitSet matchOne(String query) {
+        BitSet rows = new BitSet();
+        BitSet matchingTerms = findTerms(query);
+        for (int termId = matchingTerms.nextSetBit(0); termId >= 0; termId = matchingTerms.nextSetBit(termId + 1)) {
+            rows.or(rowsByTerm.get(termId));
+        }
+        return rows;
+    }
+
+    private BitSet findTerms(String query) {
+        BitSet matches = new BitSet();
+        List<String> queryTrigrams = trigrams(query);
+        boolean fuzzy = query.length() >= MIN_FUZZY_LENGTH;
+
+        if (queryTrigrams.isEmpty()) {
+            // Too short for trigrams: the dictionary is small, check it directly
+            for (int termId = 0; termId < terms.size(); termId++) {
+                if (terms.get(termId).contains(query)) {
+                    matches.set(termId);
+                }
+            }
+            return matches;
+        }
+
+        // A single edit touches at most three trigrams of the query
+        int required = fuzzy ? Math.max(1, queryTrigrams.size() - 3) : queryTrigrams.size();
+        Map<Integer, Integer> sharedTrigrams = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            BitSet termsWithTrigram = termsByTrigram.get(trigram);
+            if (termsWithTrigram == null) {
+                continue;
+            }
+            for (int termId = termsWithTrigram.nextSetBit(0); termId >= 0; termId = termsWithTrigram.nextSetBit(termId + 1)) {
+                sharedTrigrams.merge(termId, 1, Integer::sum);
+            }
+        }
+
+        for (Map.Entry<Integer, Integer> entry : sharedTrigrams.entrySet()) {
+            if (entry.getValue() < required) {
+                continue;
+            }
+            String term = terms.get(entry.getKey());
+            if (term.contains(query) || (fuzzy && occursWithOneEdit(query, term))) {
+                matches.set(entry.getKey());
+            }
+        }
+        return matches;
+    }
+
+    private int internTerm(String term) {
+        Integer existing = termIds.get(term);
+        if (existing != null) {
+            return existing;
+        }
+        int id = terms.size();
+        termIds.put(term, id);
+        terms.add(term);
+        rowsByTerm.add(new BitSet());
+        for (String trigram : trigrams(term)) {
+            termsByTrigram.computeIfAbsent(trigram, key -> new BitSet()).set(id);
+        }
+        return id;
+    }
+
+    private static List<String> trigrams(String value) {
+        if (value.length() < 3) {
+            return List.of();
+        }
+        List<String> result = new ArrayList<>(value.length() - 2);
+        for (int i = 0; i + 3 <= value.length(); i++) {
+            result.add(value.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    /**
+     * Approximate substring match (Sellers' algorithm): does {@code pattern} occur somewhere in
+     * {@code text} with at most one insertion, deletion or substitution?
+     */
+    private static boolean occursWithOneEdit(String pattern, String text) {
+        int m = pattern.length();
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int i = 0; i <= m; i++) {
+            previous[i] = i;
+        }
+        for (int j = 1; j <= text.length(); j++) {
+            current[0] = 0;
+            char c = text.charAt(j - 1);
+            for (int i = 1; i <= m; i++) {
+                int cost = pattern.charAt(i - 1) == c ? 0 : 1;
+                current[i] = Math.min(Math.min(current[i - 1] + 1, previous[i] + 1), previous[i - 1] + cost);
+            }
+            if (current[m] <= 1) {
+                return true;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.buddyfinder_backend.service;
+
+/**
+ * Bounded min-heap keeping the {@code capacity} best (score, user id) pairs seen so far.
+ * Higher scores win; equal scores prefer the lower user id so rankings are stable across pages.
+ * Backed by two primitive arrays, so offering a candidate never allocates.
+ */
+final class TopKHeap {
+
+    private final float[] scores;
+    private final long[] userIds;
+    private int size;
+
+    TopKHeap(int capacity) {
+        scores = new float[capacity];
+        userIds = new long[capacity];
+    }
+
+    void offer(float score, long userId) {
+        if (scores.length == 0) {
+            return;
+        }
+        if (size < scores.length) {
+            scores[size] = score;
+            userIds[size] = userId;
+            siftUp(size++);
+        } else if (worse(scores[0], userIds[0], score, userId)) {
+            scores[0] = score;
+            userIds[0] = userId;
+            siftDown(0);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Empty the heap into the given arrays, best first. Returns the number of entries written.
+     */
+    int drainBestFirst(float[] scoresOut, long[] userIdsOut) {
+        int count = size;
+        for (int i = count - 1; i >= 0; i--) {
+            scoresOut[i] = scores[0];
+            userIdsOut[i] = userIds[0];
+            size--;
+            if (size > 0) {
+                scores[0] = scores[size];
+                userIds[0] = userIds[size];
+                siftDown(0);
+            }
+        }
+        return count;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!worse(scores[index], userIds[index], scores[parent], userIds[parent])) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                return;
+            }
+            int right = left + 1;
+            int worst = right < size && worse(scores[right], userIds[right], scores[left], userIds[left]) ? right : left;
+            if (!worse(scores[worst], userIds[worst], scores[index], userIds[index])) {
+                return;
+            }
+            swap(index, worst);
+            index = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+        float score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+        long userId = userIds[a];
+        userIds[a] = userIds[b];
+        userIds[b] = userId;
+    }
+
+    private static boolean worse(float score, long userId, float otherScore, long otherUserId) {
+        int byScore = Float.compare(score, otherScore);
+        return byScore != 0 ? byScore < 0 : userId > otherUserId;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.buddyfinder_backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Server-side throttle for group typing events. Clients send "typing" on every keystroke; per
+ * (room, user) only the first one in each {@code chat.typing.throttle-ms} window is relayed.
+ * "Stopped typing" is always relayed, and resets the window.
+ */
+@Component
+public class TypingThrottle {
+
+    @Value("${chat.typing.throttle-ms:2000}")
+    private long throttleMillis;
+
+    // Last relayed "typing" time per (room, user)
+    private final Map<TypingKey, Long> lastTyping = new ConcurrentHashMap<>();
+
+    public boolean shouldRelay(Long roomId, Long userId, boolean typing) {
+        TypingKey key = new TypingKey(roomId, userId);
+        if (!typing) {
+            lastTyping.remove(key);
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        boolean[] relay = {false};
+        lastTyping.compute(key, (k, last) -> {
+            if (last == null || now - last >= throttleMillis) {
+                relay[0] = true;
+                return now;
+            }
+            return last;
+        });
+        return relay[0];
+    }
+
+    public void forget(Long roomId, Long userId) {
+        lastTyping.remove(new TypingKey(roomId, userId));
+    }
+
+    private record TypingKey(long roomId, long userId) {
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.buddyfinder_backend.service;
+
+import com.example.buddyfinder_backend.dto.UserResponse;
+import com.example.buddyfinder_backend.entity.User;
+import com.example.buddyfinder_backend.repository.ProfileRepository;
+import com.example.buddyfinder_backend.repository.RatingRepository;
+import com.example.buddyfinder_backend.util.PremiumAccessUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single place that turns {@link User} entities into {@link UserResponse}s.
+ *
+ * {@link #toResponsesWithPhotos} loads profile photos and rating aggregates for a whole list with
+ * one IN query each (per {@value #MAX_IDS_PER_QUERY} users), so the cost of a page does not grow
+ * with the number of cards on it.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserResponseAssembler {
+
+    static final int MAX_IDS_PER_QUERY = 1000;
+
+    private final ProfileRepository profileRepository;
+    private final RatingRepository ratingRepository;
+
+    /**
+     * Profile fields only, no extra queries. Premium traits are shown for premium users only.
+     */
+    public UserResponse toResponse(User user) {
+        return baseBuilder(user).build();
+    }
+
+    /**
+     * Responses with photos and rating stats, in the order of {@code users}.
+     */
+    public List<UserResponse> toResponsesWithPhotos(List<User> users) {
+        if (users.isEmpty()) {
+            return List.of();
+        }
+        List<Long> userIds = new ArrayList<>(new LinkedHashSet<>(users.stream().map(User::getUserId).toList()));
+
+        Map<Long, String> photosByUser = new HashMap<>();
+        Map<Long, RatingRepository.RatingSummary> ratingsByUser = new HashMap<>();
+        for (int from = 0; from < userIds.size(); from += MAX_IDS_PER_QUERY) {
+            List<Long> chunk = userIds.subList(from, Math.min(from + MAX_IDS_PER_QUERY, userIds.size()));
+            for (ProfileRepository.ProfilePhotos photos : profileRepository.findPhotosByUserIds(chunk)) {
+                photosByUser.put(photos.getUserId(), photos.getPhotos());
+            }
+            for (RatingRepository.RatingSummary summary : ratingRepository.summarizeFor(chunk)) {
+                ratingsByUser.put(summary.getUserId(), summary);
+            }
+        }
+
+        List<UserResponse> responses = new ArrayList<>(users.size());
+        for (User user : users) {
+            RatingRepository.RatingSummary rating = ratingsByUser.get(user.getUserId());
+            Double average = rating != null ? rating.getAverage() : null;
+            responses.add(baseBuilder(user)
+                    .photos(photosByUser.get(user.getUserId()))
+                    .averageRating(average != null ? Math.round(average * 10.0) / 10.0 : null)
+                    .totalRatings(rating != null ? rating.getTotal() : 0L)
+                    .build());
+        }
+        return responses;
+    }
+
+    private UserResponse.UserResponseBuilder baseBuilder(User user) {
+        UserResponse.UserResponseBuilder builder = UserResponse.builder()
+                .userId(user.getUserId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .age(user.getAge())
+                .gender(user.getGender())
+                .interests(user.getInterests())
+                .location(user.getLocation())
+                .latitude(user.getLatitude())
+                .longitude(user.getLongitude())
+                .availability(user.getAvailability())
+                .bio(user.getBio())
+                .tier(user.getTier() != null ? user.getTier().name() : null)
+                .fitnessLevel(user.getFitnessLevel())
+                .isVerified(user.getIsVerified())
+                .isAdmin(user.getIsAdmin())
+                .isSuperAdmin(user.getIsSuperAdmin())
+                .profilePictureUrl(user.getProfilePictureUrl())
+                .incognitoMode(user.getIncognitoMode());
+
+        PremiumAccessUtil.applyPremiumTraits(user, builder);
+        return builder;
+    }
+}
@@ -0,0 +1,677 @@
+package com.example.buddyfinder_backend.service;
+
+import com.example.buddyfinder_backend.dto.SearchFilters;
+import com.example.buddyfinder_backend.entity.User;
+import com.example.buddyfinder_backend.event.UserChangedEvent;
+import com.example.buddyfinder_backend.repository.RatingRepository;
+import com.example.buddyfinder_backend.repository.UserRepository;
+import com.example.buddyfinder_backend.util.AvailabilityParser;
+import com.example.buddyfinder_backend.util.LongHashSet;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory, column-oriented copy of the searchable attributes of every user.
+ *
+ * Each user occupies one row. Flags are kept as bitsets, low-cardinality attributes as
+ * dictionary-encoded bytes (with one bitset per dictionary value) and coordinates as float
+ * arrays, so candidate filtering is a handful of bitset intersections instead of loading the
+ * whole users table. Coordinates are additionally bucketed in a {@link GeoGridIndex} so radius
+ * searches only touch nearby cells, and interests and location are held in {@link TermIndex}
+ * inverted indexes so text filters resolve to posting-list intersections. Rows are never reused:
+ * a removed user is simply cleared from {@code live}.
+ *
+ * The index also holds what {@link #rankTopK} needs to score candidates against the searching
+ * user (interest bitsets, coordinates, fitness level, weekly availability slots, average
+ * rating), so ranking never touches the database.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserSearchIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final double KM_PER_DEGREE = Math.PI * GeoGridIndex.EARTH_RADIUS_KM / 180.0;
+
+    private final UserRepository userRepository;
+    private final RatingRepository ratingRepository;
+    private final InterestDictionary interestDictionary;
+
+    @Value("${search.ranking.weight.interests:0.35}")
+    private float interestsWeight;
+
+    @Value("${search.ranking.weight.distance:0.25}")
+    private float distanceWeight;
+
+    @Value("${search.ranking.weight.fitness:0.15}")
+    private float fitnessWeight;
+
+    @Value("${search.ranking.weight.availability:0.15}")
+    private float availabilityWeight;
+
+    @Value("${search.ranking.weight.rating:0.10}")
+    private float ratingWeight;
+
+    // Distance at which the distance score drops to one half
+    @Value("${search.ranking.distance-half-km:10}")
+    private float distanceHalfKm;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> rowByUserId = new HashMap<>();
+
+    private final BitSet live = new BitSet();
+    private final BitSet active = new BitSet();
+    private final BitSet admin = new BitSet();
+    private final BitSet incognito = new BitSet();
+
+    private final DictionaryColumn gender = new DictionaryColumn("gender");
+    private final DictionaryColumn fitnessLevel = new DictionaryColumn("fitnessLevel");
+    private final DictionaryColumn mbtiType = new DictionaryColumn("mbtiType");
+    private final DictionaryColumn zodiacSign = new DictionaryColumn("zodiacSign");
+    private final DictionaryColumn tier = new DictionaryColumn("tier");
+
+    private final GeoGridIndex geoGrid = new GeoGridIndex();
+    private final TermIndex interestTerms = new TermIndex();
+    private final TermIndex locationTerms = new TermIndex();
+
+    private long[] userIds = new long[INITIAL_CAPACITY];
+    private float[] latitude = new float[INITIAL_CAPACITY];
+    private float[] longitude = new float[INITIAL_CAPACITY];
+    private long[] availabilitySlots = new long[INITIAL_CAPACITY];
+    // Lower-cased availability text, for time filters the parser does not recognise
+    private String[] availabilityText = new String[INITIAL_CAPACITY];
+    private byte[] fitnessRank = new byte[INITIAL_CAPACITY];
+    private float[] ratingAverage = new float[INITIAL_CAPACITY];
+    private long[][] interestBits = new long[INITIAL_CAPACITY][];
+    private int rowCount;
+
+    private volatile boolean loaded;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        ensureLoaded();
+    }
+
+    /**
+     * Load every user into the index once. Later changes arrive through {@link UserChangedEvent}.
+     */
+    public void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            List<User> users = userRepository.findAll(Sort.by("userId"));
+            for (User user : users) {
+                upsertRow(user);
+            }
+            for (RatingRepository.RatingSummary summary : ratingRepository.summarizeAll()) {
+                Integer row = rowByUserId.get(summary.getUserId());
+                if (row != null && summary.getAverage() != null) {
+                    ratingAverage[row] = summary.getAverage().floatValue();
+                }
+            }
+            loaded = true;
+            log.info("User search index loaded with {} users", users.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ahead of listeners (like SearchResultCache) that must see the updated rows
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (!loaded) {
+            return; // the initial load will pick the change up from the database
+        }
+        lock.writeLock().lock();
+        try {
+            if (event.isDeleted()) {
+                removeRow(event.getUserId());
+            } else {
+                upsertRow(event.getUser());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rows of visible, active, non-admin users that satisfy every filter, in row order or, for
+     * radius searches, nearest first. Per-user exclusions (self, already swiped) are left to the caller.
+     */
+    public CandidateRows findCandidates(SearchFilters filters) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            BitSet rows = (BitSet) live.clone();
+            rows.and(active);
+            rows.andNot(admin);
+            rows.andNot(incognito);
+
+            if (filters == null) {
+                return toCandidates(rows.stream().toArray(), null);
+            }
+
+            gender.retainMatching(rows, filters.getGender());
+            fitnessLevel.retainMatching(rows, filters.getFitnessLevel());
+            mbtiType.retainMatching(rows, filters.getMbtiType());
+            zodiacSign.retainMatching(rows, filters.getZodiacSign());
+
+            String activityFilter = firstNonBlank(filters.getActivity(), filters.getInterests());
+            if (!isBlank(activityFilter)) {
+                rows.and(interestTerms.matchAll(tokenize(activityFilter)));
+            }
+            if (!isBlank(filters.getLocation())) {
+                rows.and(locationTerms.matchAll(locationTerm(filters.getLocation())));
+            }
+
+            boolean timeFiltered = !isBlank(filters.getTime());
+            long wantedSlots = AvailabilityParser.forFilter(filters.getTime());
+            // A filter naming no day or time of day falls back to a plain text match
+            String wantedText = wantedSlots == AvailabilityParser.NO_SLOTS ? normalize(filters.getTime()) : null;
+
+            if (isRadiusSearch(filters)) {
+                GeoGridIndex.Hits hits = geoGrid.query(filters.getLatitude(), filters.getLongitude(),
+                        filters.getRadiusKm(), latitude, longitude, rows);
+                int kept = 0;
+                for (int i = 0; i < hits.rows.length; i++) {
+                    if (!timeFiltered || matchesTime(hits.rows[i], wantedSlots, wantedText)) {
+                        hits.rows[kept] = hits.rows[i];
+                        hits.distancesKm[kept] = hits.distancesKm[i];
+                        kept++;
+                    }
+                }
+                return toCandidates(Arrays.copyOf(hits.rows, kept), Arrays.copyOf(hits.distancesKm, kept));
+            }
+
+            if (timeFiltered) {
+                for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+                    if (!matchesTime(row, wantedSlots, wantedText)) {
+                        rows.clear(row);
+                    }
+                }
+            }
+            return toCandidates(rows.stream().toArray(), null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Score every candidate against the searching user and keep the best {@code limit}, best first,
+     * skipping {@code excluded} ids, the requester and, when {@code after} is given, everything up to
+     * and including the cursor. Candidates go through a bounded min-heap, so ranking costs
+     * O(n log limit) time and O(limit) memory regardless of how many users passed the filters.
+     */
+    public RankedCandidates rankTopK(Long requesterId, CandidateRows candidates, LongHashSet excluded,
+                                     SearchCursor after, int limit) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Scorer scorer = new Scorer(rowByUserId.get(requesterId));
+            // One extra slot tells us whether another page exists
+            TopKHeap heap = new TopKHeap(limit + 1);
+            for (int position = 0; position < candidates.size(); position++) {
+                long userId = candidates.userIdAt(position);
+                if (userId == requesterId || excluded.contains(userId)) {
+                    continue;
+                }
+                float score = scorer.score(candidates.rowAt(position));
+                if (after == null || after.isBefore(score, userId)) {
+                    heap.offer(score, userId);
+                }
+            }
+            long[] ids = new long[heap.size()];
+            float[] scores = new float[heap.size()];
+            int count = heap.drainBestFirst(scores, ids);
+            return new RankedCandidates(ids, scores, Math.min(count, limit), count > limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Jaccard similarity of two users' interests from their precomputed bitsets, or NaN if either
+     * user is not in the index or has no interests.
+     */
+    public float interestSimilarity(long userId, long otherUserId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Integer row = rowByUserId.get(userId);
+            Integer otherRow = rowByUserId.get(otherUserId);
+            if (row == null || otherRow == null || interestBits[row].length == 0 || interestBits[otherRow].length == 0) {
+                return Float.NaN;
+            }
+            return InterestDictionary.jaccard(interestBits[row], interestBits[otherRow]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Refresh the average rating used for ranking after a rating is written.
+     */
+    public void updateRating(Long userId, Double average) {
+        if (!loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Integer row = rowByUserId.get(userId);
+            if (row != null) {
+                ratingAverage[row] = average != null ? average.floatValue() : Float.NaN;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Whether the user exists, whatever their visibility.
+     */
+    public boolean contains(long userId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return rowByUserId.containsKey(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Whether a user would currently pass the visibility checks of {@link #findCandidates}:
+     * still present, active (not banned), not an admin and not in incognito mode.
+     */
+    public boolean isDiscoverable(long userId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Integer row = rowByUserId.get(userId);
+            return row != null && active.get(row) && !admin.get(row) && !incognito.get(row);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isIncognito(long userId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Integer row = rowByUserId.get(userId);
+            return row != null && incognito.get(row);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stored tier of a user ({@code FREE}, {@code PREMIUM}, {@code ELITE}), or null if unknown.
+     */
+    public String tierOf(Long userId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Integer row = rowByUserId.get(userId);
+            String value = row != null ? tier.valueAt(row) : null;
+            return value != null ? value.toUpperCase() : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private CandidateRows toCandidates(int[] rows, float[] distancesKm) {
+        long[] ids = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            ids[i] = userIds[rows[i]];
+        }
+        return CandidateRows.of(rows, ids, distancesKm);
+    }
+
+    // ========== ROW MAINTENANCE (write lock held) ==========
+
+    private void upsertRow(User user) {
+        if (user == null || user.getUserId() == null) {
+            return;
+        }
+        Integer existing = rowByUserId.get(user.getUserId());
+        int row = existing != null ? existing : appendRow(user.getUserId());
+
+        live.set(row);
+        active.set(row, Boolean.TRUE.equals(user.getIsActive()));
+        admin.set(row, Boolean.TRUE.equals(user.getIsAdmin()));
+        incognito.set(row, Boolean.TRUE.equals(user.getIncognitoMode()));
+
+        gender.set(row, user.getGender());
+        fitnessLevel.set(row, user.getFitnessLevel());
+        mbtiType.set(row, user.getMbtiType());
+        zodiacSign.set(row, user.getZodiacSign());
+        tier.set(row, user.getTier() != null ? user.getTier().name() : null);
+
+        latitude[row] = user.getLatitude() != null ? user.getLatitude() : Float.NaN;
+        longitude[row] = user.getLongitude() != null ? user.getLongitude() : Float.NaN;
+        geoGrid.put(row, latitude[row], longitude[row]);
+        interestTerms.put(row, tokenize(user.getInterests()));
+        interestBits[row] = interestDictionary.encode(user.getInterests());
+        locationTerms.put(row, locationTerm(user.getLocation()));
+        // Users not yet reached by the backfill are parsed here
+        availabilitySlots[row] = user.getAvailabilitySlots() != null
+                ? user.getAvailabilitySlots()
+                : AvailabilityParser.parse(user.getAvailability());
+        availabilityText[row] = normalize(user.getAvailability());
+        fitnessRank[row] = (byte) fitnessRank(fitnessLevel.valueAt(row));
+    }
+
+    private int appendRow(Long userId) {
+        if (rowCount == userIds.length) {
+            int capacity = userIds.length * 2;
+            userIds = Arrays.copyOf(userIds, capacity);
+            latitude = Arrays.copyOf(latitude, capacity);
+            longitude = Arrays.copyOf(longitude, capacity);
+            availabilitySlots = Arrays.copyOf(availabilitySlots, capacity);
+            availabilityText = Arrays.copyOf(availabilityText, capacity);
+            fitnessRank = Arrays.copyOf(fitnessRank, capacity);
+            ratingAverage = Arrays.copyOf(ratingAverage, capacity);
+            interestBits = Arrays.copyOf(interestBits, capacity);
+            gender.grow(capacity);
+            fitnessLevel.grow(capacity);
+            mbtiType.grow(capacity);
+            zodiacSign.grow(capacity);
+            tier.grow(capacity);
+        }
+        int row = rowCount++;
+        userIds[row] = userId;
+        ratingAverage[row] = Float.NaN;
+        rowByUserId.put(userId, row);
+        return row;
+    }
+
+    private void removeRow(Long userId) {
+        Integer row = rowByUserId.remove(userId);
+        if (row == null) {
+            return;
+        }
+        live.clear(row);
+        active.clear(row);
+        admin.clear(row);
+        incognito.clear(row);
+        geoGrid.remove(row);
+        gender.set(row, null);
+        fitnessLevel.set(row, null);
+        mbtiType.set(row, null);
+        zodiacSign.set(row, null);
+        tier.set(row, null);
+        interestTerms.remove(row);
+        interestBits[row] = null;
+        locationTerms.remove(row);
+        availabilitySlots[row] = AvailabilityParser.NO_SLOTS;
+        availabilityText[row] = null;
+        fitnessRank[row] = 0;
+        ratingAverage[row] = Float.NaN;
+    }
+
+    // ========== ROW MATCHING (read lock held) ==========
+
+    private boolean isRadiusSearch(SearchFilters filters) {
+        return filters.getLatitude() != null
+                && filters.getLongitude() != null
+                && filters.getRadiusKm() != null
+                && filters.getRadiusKm() > 0;
+    }
+
+    private boolean matchesTime(int row, long wantedSlots, String wantedText) {
+        if (wantedText != null) {
+            return availabilityText[row] != null && availabilityText[row].contains(wantedText);
+        }
+        return (availabilitySlots[row] & wantedSlots) != 0;
+    }
+
+    /**
+     * Beginner = 1 ... expert = 4; 0 when the level is missing or not recognised.
+     */
+    private static int fitnessRank(String normalizedLevel) {
+        if (normalizedLevel == null) {
+            return 0;
+        }
+        if (normalizedLevel.contains("begin")) {
+            return 1;
+        }
+        if (normalizedLevel.contains("intermediate")) {
+            return 2;
+        }
+        if (normalizedLevel.contains("advanced")) {
+            return 3;
+        }
+        if (containsAny(normalizedLevel, "expert", "athlete", "elite")) {
+            return 4;
+        }
+        return 0;
+    }
+
+    private static boolean containsAny(String source, String... terms) {
+        for (String term : terms) {
+            if (source.contains(term)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String firstNonBlank(String... values) {
+        for (String value : values) {
+            if (!isBlank(value)) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private static String normalize(String value) {
+        return isBlank(value) ? null : value.trim().toLowerCase();
+    }
+
+    /**
+     * Distinct lower-case words of a free-text field.
+     */
+    private static List<String> tokenize(String value) {
+        if (isBlank(value)) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(value.toLowerCase())) {
+            if (!token.isEmpty() && !tokens.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * A location is indexed as one phrase with punctuation folded to spaces ("toronto on").
+     */
+    private static List<String> locationTerm(String value) {
+        List<String> words = tokenize(value);
+        return words.isEmpty() ? List.of() : List.of(String.join(" ", words));
+    }
+
+    /**
+     * Compatibility of candidate rows with one searching user, as a weighted sum of per-signal
+     * scores in [0, 1]. Created once per search; scoring a row reads only primitive columns.
+     */
+    private final class Scorer {
+
+        private final long[] interests;
+        private final float latitude;
+        private final float longitude;
+        private final double cosLatitude;
+        private final int fitness;
+        private final long availability;
+
+        private Scorer(Integer requesterRow) {
+            boolean known = requesterRow != null;
+            interests = known ? interestBits[requesterRow] : null;
+            latitude = known ? UserSearchIndex.this.latitude[requesterRow] : Float.NaN;
+            longitude = known ? UserSearchIndex.this.longitude[requesterRow] : Float.NaN;
+            cosLatitude = Math.cos(Math.toRadians(latitude));
+            fitness = known ? fitnessRank[requesterRow] : 0;
+            availability = known ? availabilitySlots[requesterRow] : AvailabilityParser.NO_SLOTS;
+        }
+
+        float score(int row) {
+            return interestsWeight * interestScore(row)
+                    + distanceWeight * distanceScore(row)
+                    + fitnessWeight * fitnessScore(row)
+                    + availabilityWeight * availabilityScore(row)
+                    + ratingWeight * ratingScore(row);
+        }
+
+        // Jaccard similarity of the interest bitsets, as in MatchService.calculateCompatibility
+        private float interestScore(int row) {
+            return interests != null ? InterestDictionary.jaccard(interests, interestBits[row]) : 0f;
+        }
+
+        private float distanceScore(int row) {
+            float otherLatitude = UserSearchIndex.this.latitude[row];
+            float otherLongitude = UserSearchIndex.this.longitude[row];
+            if (Float.isNaN(latitude) || Float.isNaN(otherLatitude) || Float.isNaN(otherLongitude)) {
+                return 0f;
+            }
+            // Equirectangular approximation: accurate enough to rank by, and free of trigonometry per row
+            double dLat = otherLatitude - latitude;
+            double dLon = Math.IEEEremainder(otherLongitude - longitude, 360.0) * cosLatitude;
+            double km = Math.sqrt(dLat * dLat + dLon * dLon) * KM_PER_DEGREE;
+            return (float) (1.0 / (1.0 + km / distanceHalfKm));
+        }
+
+        private float fitnessScore(int row) {
+            int candidate = fitnessRank[row];
+            if (fitness == 0 || candidate == 0) {
+                return 0.5f;
+            }
+            return 1f - Math.abs(fitness - candidate) / 3f;
+        }
+
+        private float availabilityScore(int row) {
+            long candidate = availabilitySlots[row];
+            if (availability == AvailabilityParser.NO_SLOTS || candidate == AvailabilityParser.NO_SLOTS) {
+                return 0f;
+            }
+            return AvailabilityParser.overlap(availability, candidate);
+        }
+
+        // Unrated users sit in the middle rather than at the bottom
+        private float ratingScore(int row) {
+            float average = ratingAverage[row];
+            return Float.isNaN(average) ? 0.5f : average / 5f;
+        }
+    }
+
+    /**
+     * Dictionary-encoded attribute: one unsigned byte code per row plus a bitset per code.
+     * Code 0 means "no value". Values are compared case-insensitively, like the old string filters.
+     */
+    private static final class DictionaryColumn {
+
+        private static final int MAX_CODES = 255;
+
+        private final String name;
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Integer> codeByValue = new HashMap<>();
+        private final List<BitSet> rowsByCode = new ArrayList<>();
+        private byte[] codes = new byte[INITIAL_CAPACITY];
+
+        private DictionaryColumn(String name) {
+            this.name = name;
+            rowsByCode.add(new BitSet()); // code 0: no value
+            values.add(null);
+        }
+
+        void grow(int capacity) {
+            codes = Arrays.copyOf(codes, capacity);
+        }
+
+        void set(int row, String rawValue) {
+            int previous = Byte.toUnsignedInt(codes[row]);
+            rowsByCode.get(previous).clear(row);
+
+            int code = encode(normalize(rawValue));
+            codes[row] = (byte) code;
+            rowsByCode.get(code).set(row);
+        }
+
+        String valueAt(int row) {
+            return values.get(Byte.toUnsignedInt(codes[row]));
+        }
+
+        /**
+         * Intersect {@code rows} with the rows holding {@code filter}; a blank filter keeps everything.
+         */
+        void retainMatching(BitSet rows, String filter) {
+            if (isBlank(filter)) {
+                return;
+            }
+            Integer code = codeByValue.get(normalize(filter));
+            if (code == null) {
+                rows.clear();
+                return;
+            }
+            rows.and(rowsByCode.get(code));
+        }
+
+        private int encode(String value) {
+            if (value == null) {
+                return 0;
+            }
+            Integer code = codeByValue.get(value);
+            if (code != null) {
+                return code;
+            }
+            if (rowsByCode.size() > MAX_CODES) {
+                log.warn("Dictionary for {} is full, '{}' will not be searchable", name, value);
+                return 0;
+            }
+            int newCode = rowsByCode.size();
+            codeByValue.put(value, newCode);
+            rowsByCode.add(new BitSet());
+            values.add(value);
+            return newCode;
+        }
+    }
+}
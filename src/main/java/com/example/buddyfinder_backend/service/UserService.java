@@ -2,11 +2,14 @@ package com.example.buddyfinder_backend.service;
 
 import com.example.buddyfinder_backend.dto.UserResponse;
 import com.example.buddyfinder_backend.entity.User;
+import com.example.buddyfinder_backend.event.UserChangedEvent;
 import com.example.buddyfinder_backend.repository.*;
+import com.example.buddyfinder_backend.util.AvailabilityParser;
 import com.example.buddyfinder_backend.util.PremiumAccessUtil;
 import com.example.buddyfinder_backend.util.SanitizeUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,6 +32,8 @@ public class UserService {
     private final ReferralRepository referralRepository;
     private final LikesRepository likesRepository;
     private final ProfileRepository profileRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserResponseAssembler userResponseAssembler;
 
     /**
      * Get user profile by ID
@@ -36,7 +41,7 @@ public class UserService {
     public UserResponse getUserProfile(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        return mapToUserResponse(user);
+        return userResponseAssembler.toResponse(user);
     }
 
     public UserResponse updateTier(Long userId, String tierName) {
@@ -60,7 +65,8 @@ public class UserService {
         }
 
         User savedUser = userRepository.save(user);
-        return mapToUserResponse(savedUser);
+        eventPublisher.publishEvent(UserChangedEvent.updated(savedUser));
+        return userResponseAssembler.toResponse(savedUser);
     }
 
     /**
@@ -117,6 +123,7 @@ public class UserService {
             Object availabilityObj = updates.get("availability");
             if (availabilityObj instanceof String availability) {
                 user.setAvailability(SanitizeUtil.sanitize(availability));
+                user.setAvailabilitySlots(AvailabilityParser.parse(user.getAvailability()));
             }
         }
         if (updates.containsKey("bio")) {
@@ -155,7 +162,8 @@ public class UserService {
         }
 
         User savedUser = userRepository.save(user);
-        return mapToUserResponse(savedUser);
+        eventPublisher.publishEvent(UserChangedEvent.updated(savedUser));
+        return userResponseAssembler.toResponse(savedUser);
     }
 
     /**
@@ -164,7 +172,7 @@ public class UserService {
     public UserResponse getUserById(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        return mapToUserResponse(user);
+        return userResponseAssembler.toResponse(user);
     }
 
     /**
@@ -316,6 +324,7 @@ public class UserService {
             // 13. Finally, delete the user account itself
             log.info("Step 13/13: Deleting user account...");
             userRepository.deleteById(userId);
+            eventPublisher.publishEvent(UserChangedEvent.deleted(userId));
             log.info("User account deleted successfully");
 
             log.info("========================================");
@@ -334,35 +343,6 @@ public class UserService {
         }
     }
 
-    /**
-     * Map User entity to UserResponse DTO
-     */
-    private UserResponse mapToUserResponse(User user) {
-        UserResponse.UserResponseBuilder builder = UserResponse.builder()
-                .userId(user.getUserId())
-                .name(user.getName())
-                .email(user.getEmail())
-                .age(user.getAge())
-                .gender(user.getGender())
-                .interests(user.getInterests())
-                .location(user.getLocation())
-                .latitude(user.getLatitude())
-                .longitude(user.getLongitude())
-                .availability(user.getAvailability())
-                .bio(user.getBio())
-                .tier(user.getTier() != null ? user.getTier().name() : null)
-                .fitnessLevel(user.getFitnessLevel())
-                .isVerified(user.getIsVerified())
-                .isAdmin(user.getIsAdmin())
-                .isSuperAdmin(user.getIsSuperAdmin())
-                .profilePictureUrl(user.getProfilePictureUrl())
-                .incognitoMode(user.getIncognitoMode());
-
-        PremiumAccessUtil.applyPremiumTraits(user, builder);
-
-        return builder.build();
-    }
-
     private Float parseCoordinate(Object rawValue, double min, double max, String fieldName) {
         if (rawValue == null) {
             return null;
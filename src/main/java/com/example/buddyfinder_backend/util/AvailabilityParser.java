@@ -0,0 +1,264 @@
+package com.example.buddyfinder_backend.util;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns free-text availability ("Weekday mornings (6-9 AM)", "Sat 5pm-7pm", "Flexible") into a
+ * weekly slot bitmask: 7 days x 4 dayparts, bit {@code day * 4 + daypart}, Monday first.
+ *
+ * Parsing happens once when availability is written, so matching two users' availability is a
+ * bitwise AND and scoring the overlap is a popcount. A mask of 0 means nothing was recognised.
+ */
+public final class AvailabilityParser {
+
+    public static final int MORNING = 1;       // 05:00 - 12:00
+    public static final int AFTERNOON = 1 << 1; // 12:00 - 17:00
+    public static final int EVENING = 1 << 2;   // 17:00 - 22:00
+    public static final int NIGHT = 1 << 3;     // 22:00 - 05:00
+
+    public static final long NO_SLOTS = 0L;
+    public static final long ALL_SLOTS = (1L << 28) - 1;
+
+    private static final int DAYPARTS = 4;
+    private static final int ALL_PARTS = (1 << DAYPARTS) - 1;
+    private static final int ALL_DAYS = (1 << 7) - 1;
+    private static final int WEEKDAYS = 0b0011111;
+    private static final int WEEKEND = 0b1100000;
+
+    private static final String DAY = "(mon(?:day)?|tue(?:s|sday)?|wed(?:nesday)?|thu(?:r|rs|rsday)?|fri(?:day)?|sat(?:urday)?|sun(?:day)?)s?";
+    private static final Pattern DAY_RANGE = Pattern.compile("\\b" + DAY + "\\s*(?:-|–|to|through|thru|until)\\s*" + DAY + "\\b");
+    private static final Pattern SINGLE_DAY = Pattern.compile("\\b" + DAY + "\\b");
+    private static final Pattern TIME_RANGE = Pattern.compile(
+            "\\b(\\d{1,2})(?::(\\d{2}))?\\s*(am|pm)?\\s*(?:-|–|to|until|till)\\s*(\\d{1,2})(?::(\\d{2}))?\\s*(am|pm)?\\b");
+    private static final Pattern SINGLE_TIME = Pattern.compile("\\b(\\d{1,2})(?::(\\d{2}))?\\s*(am|pm)\\b");
+    private static final Pattern WEEKDAY = Pattern.compile("\\bweekdays?\\b");
+    private static final Pattern WEEKEND_DAY = Pattern.compile("\\bweekends?\\b");
+    private static final Pattern SEGMENT_SEPARATOR = Pattern.compile("[,;/|&+\\n]|\\band\\b");
+
+    // Checked in order; a matched phrase is removed so "before noon" does not also count as noon
+    private static final PartPhrase[] PART_PHRASES = {
+            new PartPhrase("before noon", MORNING), new PartPhrase("before work", MORNING),
+            new PartPhrase("sunrise", MORNING), new PartPhrase("dawn", MORNING), new PartPhrase("morning", MORNING),
+            new PartPhrase("after lunch", AFTERNOON), new PartPhrase("afternoon", AFTERNOON),
+            new PartPhrase("midday", AFTERNOON), new PartPhrase("noon", AFTERNOON), new PartPhrase("lunch", AFTERNOON),
+            new PartPhrase("after work", EVENING), new PartPhrase("after school", EVENING),
+            new PartPhrase("sunset", EVENING), new PartPhrase("evening", EVENING),
+            new PartPhrase("night", NIGHT),
+            new PartPhrase("anytime", ALL_PARTS), new PartPhrase("any time", ALL_PARTS),
+            new PartPhrase("all day", ALL_PARTS), new PartPhrase("flexible", ALL_PARTS), new PartPhrase("whenever", ALL_PARTS)
+    };
+
+    private AvailabilityParser() {}
+
+    /**
+     * Slot mask of a free-text availability, or {@link #NO_SLOTS} if nothing in it was recognised.
+     * A segment naming days but no time of day covers the whole day; one naming a time of day but
+     * no days applies to the days of the segment before it, or to every day.
+     */
+    public static long parse(String availability) {
+        if (availability == null || availability.isBlank()) {
+            return NO_SLOTS;
+        }
+        long slots = NO_SLOTS;
+        int pendingDays = 0;
+        int previousDays = 0;
+        for (String segment : SEGMENT_SEPARATOR.split(availability.toLowerCase(Locale.ROOT))) {
+            StringBuilder text = new StringBuilder(segment);
+            int parts = parseTimes(text);
+            int days = parseDays(text);
+            parts |= parseParts(text);
+
+            if (days != 0 && parts == 0) {
+                pendingDays |= days; // "Mon, Wed, Fri mornings": the days come first
+                continue;
+            }
+            if (parts == 0) {
+                continue;
+            }
+            if (days == 0) {
+                days = pendingDays != 0 ? pendingDays : previousDays != 0 ? previousDays : ALL_DAYS;
+            } else {
+                days |= pendingDays;
+            }
+            pendingDays = 0;
+            previousDays = days;
+            slots |= slots(days, parts);
+        }
+        return slots | slots(pendingDays, ALL_PARTS);
+    }
+
+    /**
+     * Slot mask for a search time filter. The preset values of the search screen map to fixed
+     * masks ("evening" also covers late night); anything else is parsed like an availability.
+     * Returns {@link #NO_SLOTS} for a filter naming no day or time of day, which callers match
+     * against the availability text instead.
+     */
+    public static long forFilter(String timeFilter) {
+        if (timeFilter == null || timeFilter.isBlank()) {
+            return ALL_SLOTS;
+        }
+        return switch (timeFilter.trim().toLowerCase(Locale.ROOT)) {
+            case "morning" -> slots(ALL_DAYS, MORNING);
+            case "afternoon" -> slots(ALL_DAYS, AFTERNOON);
+            case "evening" -> slots(ALL_DAYS, EVENING | NIGHT);
+            case "night" -> slots(ALL_DAYS, NIGHT);
+            case "weekdays" -> slots(WEEKDAYS, ALL_PARTS);
+            case "weekends" -> slots(WEEKEND, ALL_PARTS);
+            default -> parse(timeFilter);
+        };
+    }
+
+    /**
+     * Share of the combined slots two masks have in common, from 0 (none) to 1 (identical).
+     */
+    public static float overlap(long first, long second) {
+        long union = first | second;
+        return union == 0 ? 0f : (float) Long.bitCount(first & second) / Long.bitCount(union);
+    }
+
+    private static long slots(int days, int parts) {
+        long slots = NO_SLOTS;
+        for (int day = 0; day < 7; day++) {
+            if ((days & (1 << day)) != 0) {
+                slots |= (long) parts << (day * DAYPARTS);
+            }
+        }
+        return slots;
+    }
+
+    private static int parseDays(StringBuilder text) {
+        int days = 0;
+        Matcher range = DAY_RANGE.matcher(text);
+        while (range.find()) {
+            int from = dayIndex(range.group(1));
+            int to = dayIndex(range.group(2));
+            for (int day = from; ; day = (day + 1) % 7) {
+                days |= 1 << day;
+                if (day == to) {
+                    break;
+                }
+            }
+        }
+        String remaining = DAY_RANGE.matcher(text).replaceAll(" ");
+        Matcher single = SINGLE_DAY.matcher(remaining);
+        while (single.find()) {
+            days |= 1 << dayIndex(single.group(1));
+        }
+        if (WEEKDAY.matcher(remaining).find()) {
+            days |= WEEKDAYS;
+        }
+        if (WEEKEND_DAY.matcher(remaining).find()) {
+            days |= WEEKEND;
+        }
+        if (remaining.contains("daily") || remaining.contains("every day") || remaining.contains("everyday")
+                || remaining.contains("any day") || remaining.contains("all week")) {
+            days |= ALL_DAYS;
+        }
+        return days;
+    }
+
+    private static int parseParts(StringBuilder text) {
+        int parts = 0;
+        for (PartPhrase phrase : PART_PHRASES) {
+            int index = text.indexOf(phrase.text());
+            while (index >= 0) {
+                parts |= phrase.parts();
+                text.replace(index, index + phrase.text().length(), " ");
+                index = text.indexOf(phrase.text());
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * Dayparts covered by clock times ("6-9 am", "5pm-7pm", "17:00-19:00", "7am"). Matched times
+     * are blanked out of {@code text} so their digits are not read again.
+     */
+    private static int parseTimes(StringBuilder text) {
+        int parts = 0;
+        Matcher range = TIME_RANGE.matcher(text);
+        StringBuilder rest = new StringBuilder();
+        int last = 0;
+        while (range.find()) {
+            int start = Integer.parseInt(range.group(1));
+            int end = Integer.parseInt(range.group(4));
+            String startMeridiem = range.group(3);
+            String endMeridiem = range.group(6);
+            if (start > 24 || end > 24) {
+                continue;
+            }
+            if (startMeridiem == null && endMeridiem != null) {
+                // "6-9 am" shares one suffix; "11-1pm" starts in the morning
+                startMeridiem = to24(start, endMeridiem) > to24(end, endMeridiem) ? "am" : endMeridiem;
+            }
+            int startHour = to24(start, startMeridiem);
+            int endHour = to24(end, endMeridiem != null ? endMeridiem : startMeridiem);
+            boolean endsOnTheHour = range.group(5) == null || range.group(5).equals("00");
+            parts |= partsBetween(startHour, endsOnTheHour ? endHour : endHour + 1);
+            rest.append(text, last, range.start()).append(' ');
+            last = range.end();
+        }
+        rest.append(text, last, text.length());
+
+        Matcher single = SINGLE_TIME.matcher(rest);
+        while (single.find()) {
+            int hour = Integer.parseInt(single.group(1));
+            if (hour <= 12) {
+                int startHour = to24(hour, single.group(3));
+                parts |= partsBetween(startHour, startHour + 1);
+            }
+        }
+        text.setLength(0);
+        text.append(SINGLE_TIME.matcher(rest).replaceAll(" "));
+        return parts;
+    }
+
+    private static int partsBetween(int startHour, int endHour) {
+        if (endHour <= startHour) {
+            endHour += 24; // runs past midnight
+        }
+        int parts = 0;
+        for (int hour = startHour; hour < endHour; hour++) {
+            parts |= partOfHour(hour % 24);
+        }
+        return parts;
+    }
+
+    private static int partOfHour(int hour) {
+        if (hour >= 5 && hour < 12) {
+            return MORNING;
+        }
+        if (hour >= 12 && hour < 17) {
+            return AFTERNOON;
+        }
+        if (hour >= 17 && hour < 22) {
+            return EVENING;
+        }
+        return NIGHT;
+    }
+
+    private static int to24(int hour, String meridiem) {
+        if (meridiem == null) {
+            return hour % 24;
+        }
+        int base = hour % 12;
+        return "pm".equals(meridiem) ? base + 12 : base;
+    }
+
+    private static int dayIndex(String day) {
+        return switch (day.substring(0, 2)) {
+            case "mo" -> 0;
+            case "tu" -> 1;
+            case "we" -> 2;
+            case "th" -> 3;
+            case "fr" -> 4;
+            case "sa" -> 5;
+            default -> 6;
+        };
+    }
+
+    private record PartPhrase(String text, int parts) {
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.buddyfinder_backend.config;
+
+import com.example.buddyfinder_backend.service.PresenceService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.websocket.servlet.WebSocketMessagingAutoConfiguration;
+import org.springframework.boot.autoconfigure.websocket.servlet.WebSocketServletAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Two nodes in broker-relay mode, sharing the embedded STOMP broker started by the first: a
+ * message sent with {@link SimpMessagingTemplate} on node A reaches a client subscribed through
+ * node B. Logs the fan-out latency distribution. Starts two web servers and a broker, so it only
+ * runs with {@code -Pintegration}.
+ */
+@Tag("integration")
+@Slf4j
+class BrokerRelayFanOutTest {
+
+    private static final String DESTINATION = "/topic/match/42";
+    private static final int MESSAGES = 500;
+
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private WebSocketStompClient stompClient;
+
+    @AfterEach
+    void tearDown() {
+        if (stompClient != null) {
+            stompClient.stop();
+        }
+        // Node A owns the broker, so stop it last
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            nodes.get(i).close();
+        }
+    }
+
+    @Test
+    void messageSentOnOneNodeReachesSubscriberOnTheOther() throws Exception {
+        int brokerPort = freePort();
+        ConfigurableApplicationContext nodeA = startNode(brokerPort, true);
+        ConfigurableApplicationContext nodeB = startNode(brokerPort, false);
+
+        stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+        int portB = ((ServletWebServerApplicationContext) nodeB).getWebServer().getPort();
+        StompSession session = stompClient
+                .connectAsync("ws://localhost:" + portB + "/ws", new StompSessionHandlerAdapter() {
+                })
+                .get(10, TimeUnit.SECONDS);
+
+        BlockingQueue<Long> receivedAt = new LinkedBlockingQueue<>();
+        BlockingQueue<Map<?, ?>> received = new LinkedBlockingQueue<>();
+        session.subscribe(DESTINATION, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Map.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                receivedAt.add(System.nanoTime());
+                received.add((Map<?, ?>) payload);
+            }
+        });
+
+        SimpMessagingTemplate templateA = nodeA.getBean(SimpMessagingTemplate.class);
+
+        // The subscription travels through node B to the broker asynchronously: probe until it is live
+        Map<?, ?> probe = null;
+        for (int attempt = 0; attempt < 50 && probe == null; attempt++) {
+            templateA.convertAndSend(DESTINATION, Map.of("seq", -1, "sentAt", 0L));
+            probe = received.poll(200, TimeUnit.MILLISECONDS);
+        }
+        assertNotNull(probe, "node B subscriber never received a message sent on node A");
+        Thread.sleep(200);
+        received.clear();
+        receivedAt.clear();
+
+        long[] latencies = new long[MESSAGES];
+        for (int seq = 0; seq < MESSAGES; seq++) {
+            templateA.convertAndSend(DESTINATION, Map.of("seq", seq, "sentAt", System.nanoTime()));
+            Map<?, ?> message = received.poll(5, TimeUnit.SECONDS);
+            Long at = receivedAt.poll(1, TimeUnit.SECONDS);
+            assertNotNull(message, "message " + seq + " was not delivered");
+            assertEquals(seq, ((Number) message.get("seq")).intValue());
+            latencies[seq] = at - ((Number) message.get("sentAt")).longValue();
+        }
+
+        Arrays.sort(latencies);
+        log.info(String.format("Broker relay fan-out A -> broker -> B over %d messages: p50 %.2f ms, p90 %.2f ms, "
+                        + "p99 %.2f ms, max %.2f ms", MESSAGES,
+                percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+                latencies[MESSAGES - 1] / 1_000_000.0));
+    }
+
+    private ConfigurableApplicationContext startNode(int brokerPort, boolean embeddedBroker) {
+        // Command line arguments, so they win over application.properties
+        ConfigurableApplicationContext node = new SpringApplicationBuilder(RelayNode.class)
+                .web(WebApplicationType.SERVLET)
+                .run(
+                        "--server.port=0",
+                        "--spring.main.banner-mode=off",
+                        "--websocket.broker.mode=relay",
+                        "--websocket.broker.relay.host=localhost",
+                        "--websocket.broker.relay.port=" + brokerPort,
+                        "--websocket.broker.embedded.enabled=" + embeddedBroker,
+                        "--websocket.broker.embedded.host=localhost",
+                        "--websocket.broker.embedded.port=" + brokerPort);
+        nodes.add(node);
+        return node;
+    }
+
+    private static double percentile(long[] sorted, int percentile) {
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile / 100.0 * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    // Only the web and STOMP layers: no database, no security
+    @SpringBootConfiguration
+    @ImportAutoConfiguration({
+            PropertyPlaceholderAutoConfiguration.class,
+            ServletWebServerFactoryAutoConfiguration.class,
+            DispatcherServletAutoConfiguration.class,
+            JacksonAutoConfiguration.class,
+            WebSocketServletAutoConfiguration.class,
+            WebSocketMessagingAutoConfiguration.class
+    })
+    @Import({WebSocketConfig.class, EmbeddedStompBrokerConfig.class, PresenceChannelInterceptor.class})
+    static class RelayNode {
+
+        @Bean
+        PresenceService presenceService() {
+            return mock(PresenceService.class);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.buddyfinder_backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SwipeConstraintsInitializerTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void everyReferencingTableIsRepointedBeforeDuplicateMatchesAreDeleted() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.query(contains("pg_constraint"), any(RowMapper.class))).thenReturn(List.of(
+                new String[]{"messages", "match_id"},
+                new String[]{"ratings", "match_id"},
+                new String[]{"\"Match Notes\"", "\"MatchRef\""}));
+
+        new SwipeConstraintsInitializer(jdbcTemplate).run();
+
+        ArgumentCaptor<String> statements = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).update(statements.capture());
+        List<String> executed = statements.getAllValues();
+        int deleteMatches = indexOf(executed, "DELETE FROM matches");
+        assertTrue(deleteMatches >= 0);
+
+        for (String repointed : List.of(
+                SwipeConstraintsInitializer.repointStatement("messages", "match_id"),
+                SwipeConstraintsInitializer.repointStatement("ratings", "match_id"),
+                SwipeConstraintsInitializer.repointStatement("\"Match Notes\"", "\"MatchRef\""))) {
+            int index = executed.indexOf(repointed);
+            assertTrue(index >= 0 && index < deleteMatches, repointed);
+        }
+        int notifications = indexOf(executed, "UPDATE notifications");
+        assertTrue(notifications >= 0 && notifications < deleteMatches);
+    }
+
+    @Test
+    void repointStatementMovesRowsOfDroppedMatchesOnly() {
+        String statement = SwipeConstraintsInitializer.repointStatement("ratings", "match_id");
+
+        assertTrue(statement.startsWith("UPDATE ratings t SET match_id = d.keep_id FROM ("));
+        assertTrue(statement.endsWith("WHERE t.match_id = d.match_id AND d.match_id <> d.keep_id"));
+    }
+
+    private static int indexOf(List<String> statements, String prefix) {
+        for (int i = 0; i < statements.size(); i++) {
+            if (statements.get(i).startsWith(prefix)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
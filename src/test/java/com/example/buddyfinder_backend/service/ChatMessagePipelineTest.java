@@ -0,0 +1,289 @@
+package com.example.buddyfinder_backend.service;
+
+import com.example.buddyfinder_backend.dto.ChatMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Journal durability of {@link ChatMessagePipeline}, against an in-memory stand-in for the
+ * messages table that honours the pipeline's ON CONFLICT clause: acknowledged messages that never
+ * reached the database, or reached it without their segment being deleted, are inserted exactly
+ * once by the next start.
+ */
+class ChatMessagePipelineTest {
+
+    private static final long MATCH_ID = 7L;
+    private static final long SENDER_ID = 1L;
+
+    @TempDir
+    Path journalDir;
+
+    private final MessagesTable table = new MessagesTable();
+    private final List<ChatMessagePipeline> pipelines = new ArrayList<>();
+    private JdbcTemplate jdbcTemplate;
+    private MatchParticipantsCache matchParticipantsCache;
+    private SimpMessagingTemplate messagingTemplate;
+    private NotificationService notificationService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(eq(insertSql()), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    table.checkUp();
+                    for (Object row : invocation.<Collection<Object>>getArgument(1)) {
+                        PreparedStatement statement = mock(PreparedStatement.class);
+                        invocation.<ParameterizedPreparedStatementSetter<Object>>getArgument(3).setValues(statement, row);
+                        ArgumentCaptor<String> clientId = ArgumentCaptor.forClass(String.class);
+                        verify(statement).setString(eq(1), clientId.capture());
+                        table.insert(invocation.getArgument(0), clientId.getValue());
+                    }
+                    return new int[0][];
+                });
+        doAnswer(invocation -> {
+            table.checkUp();
+            table.select(invocation.getArgument(0), invocation.getArgument(1));
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        matchParticipantsCache = mock(MatchParticipantsCache.class);
+        when(matchParticipantsCache.get(MATCH_ID))
+                .thenReturn(new MatchParticipantsCache.Participants(SENDER_ID, "Ann", 2L, "Bao"));
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        notificationService = mock(NotificationService.class);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        table.up = false; // whatever is still queued stays in the journal
+        for (ChatMessagePipeline pipeline : pipelines) {
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    void acknowledgedMessagesAreInsertedExactlyOnceAfterARestart() throws Exception {
+        table.up = false;
+        ChatMessagePipeline first = start();
+        List<String> acknowledged = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            ChatMessage message = first.submit(MATCH_ID, SENDER_ID, "message " + i);
+            assertNull(message.getMessageId());
+            acknowledged.add(message.getClientMessageId());
+        }
+        first.stop();
+        pipelines.remove(first);
+        List<Path> leftBehind = segments();
+        assertTrue(leftBehind.size() > 1, "expected the journal to span several segments");
+
+        // The first ten made it to the database before the node went down, their segment did not
+        table.up = true;
+        acknowledged.subList(0, 10).forEach(clientId -> table.insert(insertSql(), clientId));
+
+        start();
+
+        assertEquals(acknowledged, table.insertedClientIds);
+        assertTrue(leftBehind.stream().noneMatch(Files::exists));
+        verify(messagingTemplate, atLeastOnce()).convertAndSend(eq("/topic/match/" + MATCH_ID + "/stored"), any(ChatMessage.class));
+    }
+
+    @Test
+    void replayNotifiesRecipientsOfTheMessagesItInserted() throws Exception {
+        table.up = false;
+        ChatMessagePipeline first = start();
+        List<String> acknowledged = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            acknowledged.add(first.submit(MATCH_ID, SENDER_ID, "message " + i).getClientMessageId());
+        }
+        first.stop();
+        pipelines.remove(first);
+
+        // Two were written, and notified, before the node went down
+        table.up = true;
+        acknowledged.subList(0, 2).forEach(clientId -> table.insert(insertSql(), clientId));
+
+        start();
+
+        verify(notificationService, times(3)).notifyNewMessage(2L, MATCH_ID, "Ann");
+        verifyNoMoreInteractions(notificationService);
+    }
+
+    @Test
+    void aTornRecordAtTheEndOfTheJournalIsNotReplayed() throws Exception {
+        table.up = false;
+        ChatMessagePipeline first = start();
+        List<String> acknowledged = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            acknowledged.add(first.submit(MATCH_ID, SENDER_ID, "message " + i).getClientMessageId());
+        }
+        first.stop();
+        pipelines.remove(first);
+
+        // A write cut short by the crash: its length says 100 bytes, 10 made it to disk
+        List<Path> leftBehind = segments();
+        Path last = leftBehind.get(leftBehind.size() - 1);
+        ByteBuffer torn = ByteBuffer.allocate(Integer.BYTES * 2 + 10).putInt(100).putInt(0);
+        Files.write(last, torn.array(), StandardOpenOption.APPEND);
+
+        table.up = true;
+        start();
+
+        assertEquals(acknowledged, table.insertedClientIds);
+        assertTrue(leftBehind.stream().noneMatch(Files::exists));
+    }
+
+    @Test
+    void storedMessagesArePublishedWithTheirIds() throws Exception {
+        ChatMessagePipeline pipeline = start();
+        String clientId = pipeline.submit(MATCH_ID, SENDER_ID, "hello").getClientMessageId();
+
+        ArgumentCaptor<ChatMessage> stored = ArgumentCaptor.forClass(ChatMessage.class);
+        verify(messagingTemplate, timeout(5_000))
+                .convertAndSend(eq("/topic/match/" + MATCH_ID + "/stored"), stored.capture());
+        assertEquals(clientId, stored.getValue().getClientMessageId());
+        assertEquals(table.idsByClientId.get(clientId), stored.getValue().getMessageId());
+    }
+
+    @Test
+    void aSecondInstanceCannotShareTheJournalDirectory() throws Exception {
+        ChatMessagePipeline first = start();
+
+        assertThrows(IllegalStateException.class, this::start);
+
+        first.stop();
+        pipelines.remove(first);
+        start();
+    }
+
+    private ChatMessagePipeline start() throws IOException {
+        ChatMessagePipeline pipeline = new ChatMessagePipeline(jdbcTemplate,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                matchParticipantsCache, notificationService, messagingTemplate);
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", 100);
+        ReflectionTestUtils.setField(pipeline, "batchSize", 4);
+        ReflectionTestUtils.setField(pipeline, "maxDelayMillis", 5L);
+        ReflectionTestUtils.setField(pipeline, "offerTimeoutMillis", 100L);
+        ReflectionTestUtils.setField(pipeline, "journalDir", journalDir);
+        // A few records per segment
+        ReflectionTestUtils.setField(pipeline, "segmentBytes", 256L);
+        pipeline.start();
+        pipelines.add(pipeline);
+        return pipeline;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(journalDir)) {
+            return files.filter(path -> path.toString().endsWith(".journal")).sorted().toList();
+        }
+    }
+
+    private static String insertSql() {
+        return (String) ReflectionTestUtils.getField(ChatMessagePipeline.class, "INSERT_MESSAGE");
+    }
+
+    /**
+     * The messages table as far as the pipeline sees it: a unique client message id, and ids in
+     * insert order.
+     */
+    private static final class MessagesTable {
+        private final Map<String, Long> idsByClientId = new LinkedHashMap<>();
+        // Every row inserted, so a duplicate would show up twice
+        private final List<String> insertedClientIds = new ArrayList<>();
+        private volatile boolean up = true;
+        private long nextId = 1;
+
+        synchronized void insert(String sql, String clientId) {
+            if (idsByClientId.containsKey(clientId) && sql.contains("ON CONFLICT (client_message_id) DO NOTHING")) {
+                return;
+            }
+            idsByClientId.put(clientId, nextId++);
+            insertedClientIds.add(clientId);
+        }
+
+        /**
+         * Runs a prepared query: the advisory locks return nothing, the id lookup returns the
+         * stored rows among the requested client ids.
+         */
+        synchronized void select(PreparedStatementCreator creator, RowCallbackHandler handler) throws Exception {
+            Connection connection = mock(Connection.class);
+            PreparedStatement statement = mock(PreparedStatement.class);
+            when(connection.prepareStatement(anyString())).thenReturn(statement);
+            when(connection.createArrayOf(anyString(), any())).thenAnswer(invocation -> {
+                Array array = mock(Array.class);
+                when(array.getArray()).thenReturn(invocation.getArgument(1));
+                return array;
+            });
+            creator.createPreparedStatement(connection);
+
+            ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+            verify(connection).prepareStatement(sql.capture());
+            if (!sql.getValue().startsWith("SELECT client_message_id")) {
+                return;
+            }
+            ArgumentCaptor<Array> clientIds = ArgumentCaptor.forClass(Array.class);
+            verify(statement).setArray(eq(1), clientIds.capture());
+            for (Object clientId : (Object[]) clientIds.getValue().getArray()) {
+                Long id = idsByClientId.get((String) clientId);
+                if (id != null) {
+                    ResultSet row = mock(ResultSet.class);
+                    when(row.getString(1)).thenReturn((String) clientId);
+                    when(row.getLong(2)).thenReturn(id);
+                    handler.processRow(row);
+                }
+            }
+        }
+
+        void checkUp() {
+            if (!up) {
+                throw new DataAccessResourceFailureException("database is down");
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.buddyfinder_backend.service;
+
+import com.example.buddyfinder_backend.repository.LikesRepository;
+import com.example.buddyfinder_backend.repository.MatchRepository;
+import com.example.buddyfinder_backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MatchServiceTest {
+
+    private LikeGraph likeGraph;
+    private MatchService matchService;
+
+    @BeforeEach
+    void setUp() {
+        LikesRepository likesRepository = mock(LikesRepository.class);
+        LikesRepository.LikeOutcome outcome = mock(LikesRepository.LikeOutcome.class);
+        when(outcome.getToUserName()).thenReturn("Bao");
+        when(outcome.getInserted()).thenReturn(true);
+        when(likesRepository.recordLike(anyLong(), anyLong(), anyString(), anyBoolean(), anyLong(), anyLong(), any()))
+                .thenReturn(outcome);
+
+        likeGraph = mock(LikeGraph.class);
+        UserSearchIndex userSearchIndex = mock(UserSearchIndex.class);
+        when(userSearchIndex.interestSimilarity(anyLong(), anyLong())).thenReturn(Float.NaN);
+        matchService = new MatchService(likesRepository, mock(MatchRepository.class), mock(UserRepository.class),
+                mock(NotificationService.class), mock(SwipeHistoryCache.class), mock(UserResponseAssembler.class),
+                userSearchIndex, mock(PassIngestionPipeline.class), likeGraph);
+
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void aLikeWhoseTransactionRollsBackNeverReachesTheGraph() {
+        matchService.likeUser(1L, 2L);
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        verify(likeGraph, never()).addLike(anyLong(), anyLong());
+    }
+
+    @Test
+    void aCommittedLikeIsAddedToTheGraph() {
+        matchService.likeUser(1L, 2L);
+        verify(likeGraph, never()).addLike(anyLong(), anyLong());
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        verify(likeGraph).addLike(1L, 2L);
+    }
+}
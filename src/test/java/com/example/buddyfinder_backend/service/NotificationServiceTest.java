@@ -0,0 +1,91 @@
+package com.example.buddyfinder_backend.service;
+
+import com.example.buddyfinder_backend.entity.Notification;
+import com.example.buddyfinder_backend.entity.User;
+import com.example.buddyfinder_backend.repository.NotificationRepository;
+import com.example.buddyfinder_backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationServiceTest {
+
+    private static final Long RECIPIENT_ID = 2L;
+    private static final Long MATCH_ID = 7L;
+
+    private NotificationRepository notificationRepository;
+    private UserRepository userRepository;
+    private JdbcTemplate jdbcTemplate;
+    private NotificationService notificationService;
+
+    @BeforeEach
+    void setUp() {
+        notificationRepository = mock(NotificationRepository.class);
+        userRepository = mock(UserRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        notificationService = new NotificationService(notificationRepository, userRepository,
+                mock(SimpMessagingTemplate.class), mock(ConversationSubscriptionRegistry.class),
+                mock(PresenceService.class), jdbcTemplate, mock(ThreadPoolTaskExecutor.class));
+
+        when(userRepository.getReferenceById(RECIPIENT_ID)).thenReturn(User.builder().userId(RECIPIENT_ID).build());
+        when(notificationRepository.save(any(Notification.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void senderNamesWithPercentSignsAreNotFormatTemplates() {
+        notificationService.notifyNewMessage(RECIPIENT_ID, MATCH_ID, "100% Gym");
+        assertEquals("100% Gym sent you a message", saved().getMessage());
+
+        Notification unread = Notification.builder()
+                .user(User.builder().userId(RECIPIENT_ID).build())
+                .type(Notification.NotificationType.MESSAGE)
+                .message("100% Gym sent you a message")
+                .relatedId(MATCH_ID)
+                .relatedType("MATCH")
+                .isRead(false)
+                .collapseCount(1)
+                .build();
+        when(notificationRepository.findFirstByUser_UserIdAndTypeAndRelatedTypeAndRelatedIdAndIsReadFalseOrderByNotiIdDesc(
+                eq(RECIPIENT_ID), eq(Notification.NotificationType.MESSAGE), eq("MATCH"), anyLong()))
+                .thenReturn(Optional.of(unread));
+
+        notificationService.notifyNewMessage(RECIPIENT_ID, MATCH_ID, "100% Gym %s %d");
+        assertEquals("100% Gym %s %d sent you 2 messages", unread.getMessage());
+        assertEquals(2, unread.getCollapseCount());
+    }
+
+    @Test
+    void theConversationIsLockedBeforeLookingForAnUnreadNotification() {
+        notificationService.notifyNewMessage(RECIPIENT_ID, MATCH_ID, "Ann");
+
+        InOrder order = inOrder(jdbcTemplate, notificationRepository);
+        order.verify(jdbcTemplate).queryForObject(anyString(), eq(Integer.class), anyInt(), eq(MATCH_ID));
+        order.verify(notificationRepository)
+                .findFirstByUser_UserIdAndTypeAndRelatedTypeAndRelatedIdAndIsReadFalseOrderByNotiIdDesc(
+                        RECIPIENT_ID, Notification.NotificationType.MESSAGE, "MATCH", MATCH_ID);
+        order.verify(notificationRepository).save(any(Notification.class));
+    }
+
+    private Notification saved() {
+        ArgumentCaptor<Notification> saved = ArgumentCaptor.forClass(Notification.class);
+        verify(notificationRepository).save(saved.capture());
+        return saved.getValue();
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.buddyfinder_backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PassIngestionPipelineTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private PassIngestionPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        pipeline = new PassIngestionPipeline(jdbcTemplate, mock(SwipeHistoryCache.class));
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", 100);
+        ReflectionTestUtils.setField(pipeline, "batchSize", 10);
+        ReflectionTestUtils.setField(pipeline, "maxDelayMillis", 5L);
+        ReflectionTestUtils.setField(pipeline, "shutdownTimeoutMillis", 5_000L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void passesSurviveADatabaseOutage() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    if (attempts.getAndIncrement() == 0) {
+                        throw new DataAccessResourceFailureException("database is down");
+                    }
+                    return new int[0][];
+                });
+        when(jdbcTemplate.update(anyString(), anyLong(), anyLong()))
+                .thenThrow(new DataAccessResourceFailureException("database is down"));
+        pipeline.start();
+
+        pipeline.submit(1L, 2L);
+
+        verify(jdbcTemplate, timeout(5_000).times(2))
+                .batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        pipeline.stop();
+        assertEquals(1L, pipeline.metrics().get("flushed"));
+        assertEquals(0L, pipeline.metrics().get("dropped"));
+    }
+
+    @Test
+    void passesTheDatabaseRejectsAreCountedAsDropped() throws Exception {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("user deleted"));
+        when(jdbcTemplate.update(anyString(), eq(1L), anyLong())).thenThrow(new DataIntegrityViolationException("user deleted"));
+        pipeline.start();
+
+        pipeline.submit(1L, 2L);
+        pipeline.submit(3L, 4L);
+        pipeline.stop();
+
+        assertEquals(1L, pipeline.metrics().get("flushed"));
+        assertEquals(1L, pipeline.metrics().get("dropped"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void stopWaitsForTheFlushInProgressWithoutInterruptingIt() throws Exception {
+        CountDownLatch flushing = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    flushing.countDown();
+                    try {
+                        Thread.sleep(300);
+                    } catch (InterruptedException e) {
+                        interrupted.set(true);
+                    }
+                    return new int[0][];
+                });
+        pipeline.start();
+
+        pipeline.submit(1L, 2L);
+        assertTrue(flushing.await(5, TimeUnit.SECONDS));
+        // Queued while the first batch is being written
+        pipeline.submit(3L, 4L);
+        pipeline.stop();
+
+        assertFalse(interrupted.get());
+        assertEquals(2L, pipeline.metrics().get("flushed"));
+        assertEquals(0L, pipeline.metrics().get("dropped"));
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.buddyfinder_backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Connect / heartbeat / disconnect throughput of {@link PresenceService} with 100k resident
+ * sessions, and their approximate heap footprint. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@Slf4j
+class PresenceChurnBenchmark {
+
+    private static final int RESIDENT_SESSIONS = 100_000;
+    private static final int THREADS = 8;
+    private static final int CYCLES_PER_THREAD = 250_000;
+
+    @Test
+    void connectDisconnectChurnWith100kResidentSessions() throws Exception {
+        PresenceService presence = new PresenceService(mock(UserSearchIndex.class));
+        ReflectionTestUtils.setField(presence, "heartbeatMillis", 10_000L);
+        ReflectionTestUtils.setField(presence, "brokerMode", "simple");
+
+        // Only a rough footprint: the heap after a GC, before and after the resident sessions
+        System.gc();
+        long heapBefore = usedHeap();
+        for (int i = 0; i < RESIDENT_SESSIONS; i++) {
+            presence.connected("resident-" + i, (long) i, 25_000);
+        }
+        System.gc();
+        long heapAfter = usedHeap();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < CYCLES_PER_THREAD; i++) {
+                    String sessionId = "churn-" + thread + "-" + i;
+                    presence.connected(sessionId, 1_000_000L + (i % 5_000), 25_000);
+                    presence.touch(sessionId);
+                    presence.disconnected(sessionId);
+                }
+            });
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES));
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+
+        assertEquals(RESIDENT_SESSIONS, presence.metrics().get("sessions"));
+
+        long cycles = (long) THREADS * CYCLES_PER_THREAD;
+        log.info(String.format("Presence churn: %d connect/heartbeat/disconnect cycles on %d threads in %.2f s "
+                        + "= %.0f cycles/s; %d resident sessions use ~%d bytes each",
+                cycles, THREADS, seconds, cycles / seconds, RESIDENT_SESSIONS,
+                (heapAfter - heapBefore) / RESIDENT_SESSIONS));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.buddyfinder_backend.service;
+
+import com.example.buddyfinder_backend.dto.PresenceStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PresenceServiceTest {
+
+    private UserSearchIndex userSearchIndex;
+    private PresenceService presence;
+
+    @BeforeEach
+    void setUp() {
+        userSearchIndex = mock(UserSearchIndex.class);
+        presence = new PresenceService(userSearchIndex);
+        ReflectionTestUtils.setField(presence, "heartbeatMillis", 10_000L);
+        ReflectionTestUtils.setField(presence, "brokerMode", "simple");
+        ReflectionTestUtils.setField(presence, "lastSeenRetentionMillis", 86_400_000L);
+        ReflectionTestUtils.setField(presence, "maxOfflineUsers", 200_000);
+        ReflectionTestUtils.setField(presence, "maxLookupUsers", 500);
+        ReflectionTestUtils.setField(presence, "skipOfflinePushes", true);
+    }
+
+    @Test
+    void userStaysOnlineUntilTheirLastSessionCloses() {
+        presence.connected("s1", 7L, 0);
+        presence.connected("s2", 7L, 0);
+
+        presence.disconnected("s1");
+        assertTrue(presence.isOnline(7L));
+
+        presence.disconnected("s2");
+        presence.disconnected("s2"); // duplicate disconnect events are harmless
+        assertFalse(presence.isOnline(7L));
+        assertTrue(presence.isKnownOffline(7L));
+
+        PresenceStatus status = presence.lookup(1L, List.of(7L)).get(0);
+        assertFalse(status.getOnline());
+        assertNotNull(status.getLastSeen());
+    }
+
+    @Test
+    void incognitoUsersAreHiddenFromOthersOnly() {
+        presence.connected("s1", 7L, 0);
+        when(userSearchIndex.isIncognito(7L)).thenReturn(true);
+
+        PresenceStatus seenByOther = presence.lookup(1L, List.of(7L)).get(0);
+        assertFalse(seenByOther.getOnline());
+        assertNull(seenByOther.getLastSeen());
+        assertTrue(presence.lookup(7L, List.of(7L)).get(0).getOnline());
+    }
+
+    @Test
+    void sweepClosesSessionsThatStopHeartbeating() throws InterruptedException {
+        ReflectionTestUtils.setField(presence, "heartbeatMillis", 10L);
+        presence.connected("silent", 1L, 10);
+        presence.connected("beating", 2L, 10);
+        presence.connected("no-heartbeats", 3L, 0);
+
+        for (int i = 0; i < 6; i++) {
+            Thread.sleep(10);
+            presence.touch("beating");
+        }
+        presence.sweep();
+
+        assertFalse(presence.isOnline(1L));
+        assertTrue(presence.isOnline(2L));
+        assertTrue(presence.isOnline(3L));
+    }
+
+    @Test
+    void pushesAreNotSkippedUnlessEnabled() {
+        ReflectionTestUtils.setField(presence, "skipOfflinePushes", false);
+        assertFalse(presence.isKnownOffline(7L));
+    }
+
+    @Test
+    void anAnonymousSessionMeansNobodyIsKnownOffline() {
+        presence.connected("anonymous", null, 0);
+        assertFalse(presence.isKnownOffline(7L));
+        assertFalse(presence.isOnline(7L));
+
+        presence.disconnected("anonymous");
+        assertTrue(presence.isKnownOffline(7L));
+    }
+
+    @Test
+    void relayModeNeverReportsUsersAsKnownOffline() {
+        ReflectionTestUtils.setField(presence, "brokerMode", "relay");
+        assertFalse(presence.isKnownOffline(7L));
+    }
+
+    @Test
+    void concurrentChurnLeavesResidentSessionsAndNoStaleOnlineUsers() throws Exception {
+        int resident = 1_000;
+        for (int i = 0; i < resident; i++) {
+            presence.connected("resident-" + i, (long) i, 0);
+        }
+
+        int threads = 4;
+        int cyclesPerThread = 5_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < cyclesPerThread; i++) {
+                    String sessionId = "churn-" + thread + "-" + i;
+                    // Churning users overlap each other but not the resident ones
+                    presence.connected(sessionId, 1_000_000L + (i % 100), 0);
+                    presence.touch(sessionId);
+                    presence.disconnected(sessionId);
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(resident, presence.metrics().get("sessions"));
+        assertEquals((long) resident, presence.metrics().get("onlineUsers"));
+        for (long userId = 1_000_000L; userId < 1_000_100L; userId++) {
+            assertFalse(presence.isOnline(userId));
+        }
+    }
+}
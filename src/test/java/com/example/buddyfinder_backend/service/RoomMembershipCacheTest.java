@@ -0,0 +1,83 @@
+package com.example.buddyfinder_backend.service;
+
+import com.example.buddyfinder_backend.entity.ChatRoom;
+import com.example.buddyfinder_backend.entity.ChatRoomMember;
+import com.example.buddyfinder_backend.entity.User;
+import com.example.buddyfinder_backend.repository.ChatRoomMemberRepository;
+import com.example.buddyfinder_backend.repository.ChatRoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RoomMembershipCacheTest {
+
+    private static final Long ROOM_ID = 5L;
+
+    private ChatRoomMemberRepository chatRoomMemberRepository;
+    private RoomMembershipCache cache;
+    // What the database holds, as changed by any node
+    private final List<ChatRoomMember> members = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ChatRoomRepository chatRoomRepository = mock(ChatRoomRepository.class);
+        chatRoomMemberRepository = mock(ChatRoomMemberRepository.class);
+        when(chatRoomRepository.findById(ROOM_ID)).thenReturn(Optional.of(ChatRoom.builder().id(ROOM_ID).build()));
+        when(chatRoomMemberRepository.findByChatRoom_Id(ROOM_ID)).thenAnswer(invocation -> List.copyOf(members));
+        when(chatRoomMemberRepository.existsByChatRoom_IdAndUser_UserId(ROOM_ID, 2L))
+                .thenAnswer(invocation -> members.stream().anyMatch(m -> m.getUser().getUserId().equals(2L)));
+
+        cache = new RoomMembershipCache(chatRoomRepository, chatRoomMemberRepository);
+        ReflectionTestUtils.setField(cache, "ttlMillis", 60_000L);
+        members.add(member(1L, "Ann"));
+    }
+
+    @Test
+    void memberWhoJoinedOnAnotherNodeIsConfirmedFromTheDatabase() {
+        assertFalse(cache.get(ROOM_ID).includes(2L));
+
+        members.add(member(2L, "Bao"));
+        RoomMembershipCache.RoomMembers room = cache.get(ROOM_ID, 2L);
+
+        assertTrue(room.includes(2L));
+        assertTrue(cache.get(ROOM_ID).includes(2L));
+    }
+
+    @Test
+    void knownMembersAndRefusedUsersDoNotReloadTheRoom() {
+        cache.get(ROOM_ID, 1L);
+        cache.get(ROOM_ID, 1L);
+        assertFalse(cache.get(ROOM_ID, 2L).includes(2L));
+
+        verify(chatRoomMemberRepository, times(1)).findByChatRoom_Id(ROOM_ID);
+        verify(chatRoomMemberRepository, never()).existsByChatRoom_IdAndUser_UserId(ROOM_ID, 1L);
+    }
+
+    @Test
+    void memberWhoLeftOnAnotherNodeIsDroppedOnceTheRoomExpires() {
+        ReflectionTestUtils.setField(cache, "ttlMillis", 0L);
+        assertTrue(cache.get(ROOM_ID, 1L).includes(1L));
+
+        members.clear();
+        assertFalse(cache.get(ROOM_ID, 1L).includes(1L));
+    }
+
+    private static ChatRoomMember member(Long userId, String name) {
+        return ChatRoomMember.builder()
+                .user(User.builder().userId(userId).name(name).build())
+                .role(ChatRoomMember.Role.MEMBER)
+                .build();
+    }
+}
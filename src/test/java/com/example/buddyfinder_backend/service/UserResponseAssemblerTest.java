@@ -0,0 +1,116 @@
+package com.example.buddyfinder_backend.service;
+
+import com.example.buddyfinder_backend.dto.UserResponse;
+import com.example.buddyfinder_backend.entity.Profile;
+import com.example.buddyfinder_backend.entity.Rating;
+import com.example.buddyfinder_backend.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Counts the SQL statements Hibernate actually prepares while assembling a list, on an in-memory
+ * database: the cost of a page must not grow with the number of users on it.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+@Import(UserResponseAssembler.class)
+class UserResponseAssemblerTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserResponseAssembler assembler;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void matchListOf200CostsOneQueryForPhotosAndOneForRatings() {
+        List<User> users = persistUsers(200);
+        User rater = users.get(0);
+        for (User user : users) {
+            if (user.getUserId() % 2 == 0) {
+                // 4, 4, 4, 5: an average of 4.25
+                for (int stars : new int[]{4, 4, 4, 5}) {
+                    entityManager.persist(Rating.builder().fromUser(rater).toUser(user).rating(stars).build());
+                }
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<UserResponse> responses = assembler.toResponsesWithPhotos(users);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(200, responses.size());
+        UserResponse rated = responses.stream()
+                .filter(response -> response.getUserId() % 2 == 0)
+                .findFirst()
+                .orElseThrow();
+        assertEquals("[\"photo-" + rated.getUserId() + ".jpg\"]", rated.getPhotos());
+        assertEquals(4.3, rated.getAverageRating());
+        assertEquals(4L, rated.getTotalRatings());
+
+        UserResponse unrated = responses.stream()
+                .filter(response -> response.getUserId() % 2 != 0)
+                .findFirst()
+                .orElseThrow();
+        assertNull(unrated.getAverageRating());
+        assertEquals(0L, unrated.getTotalRatings());
+    }
+
+    @Test
+    void largeListsAreQueriedInChunks() {
+        List<User> users = persistUsers(UserResponseAssembler.MAX_IDS_PER_QUERY * 2 + 1);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        assertEquals(users.size(), assembler.toResponsesWithPhotos(users).size());
+
+        // Three chunks, two queries each
+        assertEquals(6, statistics.getPrepareStatementCount());
+    }
+
+    private List<User> persistUsers(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            User user = entityManager.persist(User.builder()
+                    .name("User " + i)
+                    .email("user" + i + "@example.com")
+                    .password("secret")
+                    .build());
+            entityManager.persist(Profile.builder()
+                    .user(user)
+                    .photos("[\"photo-" + user.getUserId() + ".jpg\"]")
+                    .build());
+            users.add(user);
+        }
+        return users;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.buddyfinder_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import static com.example.buddyfinder_backend.util.AvailabilityParser.AFTERNOON;
+import static com.example.buddyfinder_backend.util.AvailabilityParser.ALL_SLOTS;
+import static com.example.buddyfinder_backend.util.AvailabilityParser.EVENING;
+import static com.example.buddyfinder_backend.util.AvailabilityParser.MORNING;
+import static com.example.buddyfinder_backend.util.AvailabilityParser.NIGHT;
+import static com.example.buddyfinder_backend.util.AvailabilityParser.NO_SLOTS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AvailabilityParserTest {
+
+    private static final int MON = 0, TUE = 1, WED = 2, THU = 3, FRI = 4, SAT = 5, SUN = 6;
+    private static final int ALL_PARTS = MORNING | AFTERNOON | EVENING | NIGHT;
+
+    @Test
+    void daypartWordsApplyToEveryDayUnlessDaysAreNamed() {
+        assertEquals(slots(MORNING, MON, TUE, WED, THU, FRI, SAT, SUN), AvailabilityParser.parse("Mornings"));
+        assertEquals(slots(MORNING, MON, TUE, WED, THU, FRI), AvailabilityParser.parse("Weekday mornings (6-9 AM)"));
+        assertEquals(slots(MORNING, MON, WED, FRI), AvailabilityParser.parse("Mon, Wed, Fri mornings"));
+        assertEquals(ALL_SLOTS, AvailabilityParser.parse("Flexible"));
+    }
+
+    @Test
+    void longerPhrasesAreNotReadAgainAsShorterOnes() {
+        // "before noon" is a morning, not also the afternoon "noon"
+        assertEquals(slots(MORNING, MON, TUE, WED, THU, FRI, SAT, SUN), AvailabilityParser.parse("before noon"));
+        assertEquals(slots(EVENING, MON, TUE, WED, THU, FRI), AvailabilityParser.parse("weekdays after work"));
+    }
+
+    @Test
+    void clockTimesMapToTheDaypartsTheyCover() {
+        assertEquals(slots(EVENING, SAT), AvailabilityParser.parse("Sat 5pm-7pm"));
+        assertEquals(slots(EVENING, SAT), AvailabilityParser.parse("Saturday 17:00-19:30"));
+        assertEquals(slots(EVENING | NIGHT, SAT), AvailabilityParser.parse("Saturday 17:00-22:30"));
+        // One shared suffix, and a range that starts before noon
+        assertEquals(slots(MORNING, MON, TUE, WED, THU, FRI, SAT, SUN), AvailabilityParser.parse("6-9 am"));
+        assertEquals(slots(MORNING | AFTERNOON, SUN), AvailabilityParser.parse("Sun 11-1pm"));
+        // Past midnight
+        assertEquals(slots(NIGHT, FRI), AvailabilityParser.parse("Fri 10pm-2am"));
+        assertEquals(slots(MORNING, TUE), AvailabilityParser.parse("tue 7am"));
+    }
+
+    @Test
+    void dayRangesIncludeBothEndsAndWrapAroundTheWeek() {
+        assertEquals(slots(ALL_PARTS, MON, TUE, WED), AvailabilityParser.parse("Mon to Wed"));
+        assertEquals(slots(EVENING, THU, FRI, SAT), AvailabilityParser.parse("Thursday-Saturday evenings"));
+        assertEquals(slots(EVENING, FRI, SAT, SUN, MON), AvailabilityParser.parse("Fri - Mon evenings"));
+        assertEquals(slots(ALL_PARTS, WED), AvailabilityParser.parse("wed through wed"));
+    }
+
+    @Test
+    void segmentsWithoutDaysReuseThePreviousSegmentsDays() {
+        assertEquals(slots(MORNING | EVENING, SAT, SUN), AvailabilityParser.parse("Weekends: mornings, evenings"));
+        assertEquals(slots(MORNING, MON) | slots(EVENING, MON, TUE, WED, THU, FRI, SAT, SUN),
+                AvailabilityParser.parse("Monday mornings; evenings daily"));
+    }
+
+    @Test
+    void unrecognisedTextHasNoSlots() {
+        assertEquals(NO_SLOTS, AvailabilityParser.parse(null));
+        assertEquals(NO_SLOTS, AvailabilityParser.parse("  "));
+        assertEquals(NO_SLOTS, AvailabilityParser.parse("ask me"));
+    }
+
+    @Test
+    void presetFiltersMapToFixedMasks() {
+        assertEquals(ALL_SLOTS, AvailabilityParser.forFilter(null));
+        assertEquals(slots(EVENING | NIGHT, MON, TUE, WED, THU, FRI, SAT, SUN), AvailabilityParser.forFilter("Evening"));
+        assertEquals(slots(ALL_PARTS, SAT, SUN), AvailabilityParser.forFilter(" weekends "));
+        assertEquals(slots(ALL_PARTS, MON, TUE, WED, THU, FRI), AvailabilityParser.forFilter("weekdays"));
+    }
+
+    @Test
+    void otherFiltersAreParsedOrLeftForTextMatching() {
+        assertEquals(slots(EVENING, SAT), AvailabilityParser.forFilter("Sat 5pm-7pm"));
+        assertEquals(NO_SLOTS, AvailabilityParser.forFilter("by appointment"));
+    }
+
+    @Test
+    void overlapIsTheShareOfCombinedSlots() {
+        long saturdayEvening = slots(EVENING, SAT);
+        long weekendEvenings = slots(EVENING, SAT, SUN);
+        assertEquals(0.5f, AvailabilityParser.overlap(saturdayEvening, weekendEvenings));
+        assertEquals(1f, AvailabilityParser.overlap(weekendEvenings, weekendEvenings));
+        assertEquals(0f, AvailabilityParser.overlap(NO_SLOTS, NO_SLOTS));
+    }
+
+    private static long slots(int parts, int... days) {
+        long slots = NO_SLOTS;
+        for (int day : days) {
+            slots |= (long) parts << (day * 4);
+        }
+        return slots;
+    }
+}